@@ -0,0 +1,60 @@
+package mancala;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measures AyoRules.distributeStones from the pit with the longest relay in the starting position
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class AyoRulesBenchmark {
+
+    @Param({"3", "4", "6", "10"})
+    private int stones;
+
+    @Param({"false", "true"})
+    private boolean packed;
+
+    private AyoRules rules;
+    private int[] start;
+    private int relayPit;
+
+    @Setup
+    public void setUp() {
+        rules = new AyoRules(packed);
+        rules.registerPlayers(new Player("one"), new Player("two"));
+        Boards.fill(rules, stones);
+        start = Boards.save(rules);
+        int longest = -1;
+        for (int pit = 1; pit <= 6; pit++) {
+            final int sown = rules.distributeStones(pit);
+            Boards.restore(rules, start);
+            if (sown > longest) {
+                longest = sown;
+                relayPit = pit;
+            }
+        }
+    }
+
+    /**
+     * Sows the longest relay and puts the board back
+     *
+     * @return The number of stones sown over the whole relay
+     */
+    @Benchmark
+    public int distributeStones() {
+        final int sown = rules.distributeStones(relayPit);
+        Boards.restore(rules, start);
+        return sown;
+    }
+}
@@ -0,0 +1,50 @@
+package mancala;
+
+/**
+ * Sets up the positions the benchmarks start from
+ */
+final class Boards {
+
+    private Boards() {
+    }
+
+    /**
+     * Puts the same number of stones in every pit and gives player 1 the move.
+     * The stores are left alone so players registered with the rules stay connected.
+     *
+     * @param rules  The game rules to set up
+     * @param stones The number of stones for each pit
+     */
+    static void fill(final GameRules rules, final int stones) {
+        final MancalaDataStructure structure = rules.getDataStructure();
+        for (int pit = 1; pit <= rules.getGeometry().getPitCount(); pit++) {
+            structure.removeStones(pit);
+            structure.addStones(pit, stones);
+        }
+        rules.setCurrentPlayer(1);
+    }
+
+    /**
+     * Saves a position so a benchmark can put it back after each move
+     *
+     * @param rules The game rules holding the position
+     * @return The saved board and player to move
+     */
+    static int[] save(final GameRules rules) {
+        final int[] state = new int[rules.getDataStructure().getStateSize() + 1];
+        rules.getDataStructure().saveState(state, 0);
+        state[state.length - 1] = rules.getCurrentPlayer();
+        return state;
+    }
+
+    /**
+     * Puts back a position saved with save
+     *
+     * @param rules The game rules to restore
+     * @param state The saved board and player to move
+     */
+    static void restore(final GameRules rules, final int[] state) {
+        rules.getDataStructure().restoreState(state, 0);
+        rules.setCurrentPlayer(state[state.length - 1]);
+    }
+}
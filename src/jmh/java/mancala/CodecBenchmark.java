@@ -0,0 +1,82 @@
+package mancala;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Compares writing and reading a game in memory with Java serialization and with GameCodec.
+ * The size of each format is printed when the benchmark sets up.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CodecBenchmark {
+
+    @Param({"serialization", "codec"})
+    private String format;
+
+    @Param({"4", "10"})
+    private int stones;
+
+    private MancalaGame game;
+    private byte[] saved;
+
+    @Setup
+    public void setUp() throws InvalidMoveException, IOException {
+        game = new MancalaGame(new KalahRules());
+        game.setPlayers(new Player("one"), new Player("two"));
+        Boards.fill(game.getBoard(), stones);
+        game.move(3);
+        saved = write();
+        System.out.printf("%n%s: %d bytes%n", format, saved.length);
+    }
+
+    /**
+     * Writes the game to a byte array
+     *
+     * @return The saved bytes
+     * @throws IOException Never, the bytes stay in memory
+     */
+    @Benchmark
+    public byte[] write() throws IOException {
+        if ("codec".equals(format)) {
+            return GameCodec.encode(game);
+        }
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(game);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Reads the game back from the bytes written in setup
+     *
+     * @return The loaded game
+     * @throws IOException            Never, the bytes were written by setup
+     * @throws ClassNotFoundException Never, the classes are all on the class path
+     */
+    @Benchmark
+    public Serializable read() throws IOException, ClassNotFoundException {
+        if ("codec".equals(format)) {
+            return GameCodec.decode(saved);
+        }
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(saved))) {
+            return (Serializable) in.readObject();
+        }
+    }
+}
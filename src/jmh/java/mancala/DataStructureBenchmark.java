@@ -0,0 +1,80 @@
+package mancala;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measures walking the board with MancalaDataStructure.next and adding stones, on both backends
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class DataStructureBenchmark {
+
+    @Param({"3", "4", "6", "10"})
+    private int stones;
+
+    @Param({"false", "true"})
+    private boolean packed;
+
+    private MancalaDataStructure structure;
+
+    /*counts only ever grow here, so the board is refilled between iterations*/
+    @Setup(Level.Iteration)
+    public void setUp() {
+        structure = new MancalaDataStructure(stones, packed);
+        structure.setUpPits();
+        structure.setStore(new Store(), 1);
+        structure.setStore(new Store(), 2);
+    }
+
+    /**
+     * Sows one stone into every pit and the mover's store, one next call at a time
+     *
+     * @return The count of the last hole, so the work is not thrown away
+     */
+    @Benchmark
+    public int nextLap() {
+        structure.setIterator(1, 1, false);
+        Countable hole = null;
+        for (int i = 0; i < 13; i++) {
+            hole = structure.next();
+            hole.addStone();
+        }
+        return hole.getStoneCount();
+    }
+
+    /**
+     * Sows one lap with the closed-form sow used by the rules
+     *
+     * @return The count of the last hole
+     */
+    @Benchmark
+    public int sowLap() {
+        structure.setIterator(1, 1, false);
+        return structure.sow(13);
+    }
+
+    /**
+     * Adds stones to every pit by number
+     *
+     * @return The count of the last pit
+     */
+    @Benchmark
+    public int addStones() {
+        int count = 0;
+        for (int pit = 1; pit <= 12; pit++) {
+            count = structure.addStones(pit, 1);
+        }
+        return count;
+    }
+}
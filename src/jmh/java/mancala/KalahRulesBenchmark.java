@@ -0,0 +1,66 @@
+package mancala;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measures KalahRules.moveStones from the starting position, putting the board back after each move
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class KalahRulesBenchmark {
+
+    @Param({"3", "4", "6", "10"})
+    private int stones;
+
+    @Param({"false", "true"})
+    private boolean packed;
+
+    private KalahRules rules;
+    private int[] start;
+    private int pit;
+
+    @Setup
+    public void setUp() {
+        rules = new KalahRules(packed);
+        rules.registerPlayers(new Player("one"), new Player("two"));
+        Boards.fill(rules, stones);
+        start = Boards.save(rules);
+    }
+
+    /**
+     * Plays each of player 1's pits in turn
+     *
+     * @return The stones added to the store
+     * @throws InvalidMoveException Never, every pit holds stones
+     */
+    @Benchmark
+    public int moveStones() throws InvalidMoveException {
+        pit = pit % 6 + 1;
+        final int gained = rules.moveStones(pit, 1);
+        Boards.restore(rules, start);
+        return gained;
+    }
+
+    /**
+     * Plays and takes back each of player 1's pits in turn, as the search does
+     *
+     * @return The stones added to the store
+     */
+    @Benchmark
+    public int makeUnmakeMove() {
+        pit = pit % 6 + 1;
+        final int gained = rules.makeMove(pit);
+        rules.unmakeMove();
+        return gained;
+    }
+}
@@ -0,0 +1,66 @@
+package mancala;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measures the end of game checks MancalaGame makes after every move
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class MancalaGameBenchmark {
+
+    @Param({"3", "4", "6", "10"})
+    private int stones;
+
+    private MancalaGame playing;
+    private MancalaGame finished;
+
+    @Setup
+    public void setUp() {
+        playing = makeGame();
+        finished = makeGame();
+        final MancalaDataStructure structure = finished.getBoard().getDataStructure();
+        for (int pit = 1; pit <= 6; pit++) {
+            structure.removeStones(pit);
+        }
+    }
+
+    private MancalaGame makeGame() {
+        final MancalaGame game = new MancalaGame(new KalahRules());
+        game.setPlayers(new Player("one"), new Player("two"));
+        Boards.fill(game.getBoard(), stones);
+        return game;
+    }
+
+    /**
+     * Checks a game where both sides still hold stones
+     *
+     * @return Whether the game is over
+     */
+    @Benchmark
+    public boolean isGameOver() {
+        return playing.isGameOver();
+    }
+
+    /**
+     * Finds the winner of a finished game. The first call sweeps the pits into
+     * the stores, after which the board is already clear.
+     *
+     * @return The winner
+     * @throws GameNotOverException Never, one side is empty
+     */
+    @Benchmark
+    public Player getWinner() throws GameNotOverException {
+        return finished.getWinner();
+    }
+}
@@ -0,0 +1,62 @@
+package mancala;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measures whole games of random moves from the starting position, as run by MonteCarloEngine
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PlayoutBenchmark {
+
+    @Param({"3", "4", "6", "10"})
+    private int stones;
+
+    @Param({"kalah", "ayo"})
+    private String variant;
+
+    @Param({"false", "true"})
+    private boolean packed;
+
+    private GameRules rules;
+    private int[] start;
+    private final SplittableRandom random = new SplittableRandom(42);
+
+    @Setup
+    public void setUp() {
+        rules = "ayo".equals(variant) ? new AyoRules(packed) : new KalahRules(packed);
+        rules.registerPlayers(new Player("one"), new Player("two"));
+        Boards.fill(rules, stones);
+        start = Boards.save(rules);
+    }
+
+    /**
+     * Plays random legal moves until one side is empty, then puts the board back
+     *
+     * @return The number of moves played
+     */
+    @Benchmark
+    public int randomPlayout() {
+        int moves = 0;
+        for (int legal = rules.getLegalMoves(); legal != 0 && !rules.isGameOver(); legal = rules.getLegalMoves()) {
+            for (int skip = random.nextInt(Integer.bitCount(legal)); skip > 0; skip--) {
+                legal &= legal - 1;
+            }
+            rules.tryMove(Integer.numberOfTrailingZeros(legal));
+            moves++;
+        }
+        Boards.restore(rules, start);
+        return moves;
+    }
+}
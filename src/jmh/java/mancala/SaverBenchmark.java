@@ -0,0 +1,67 @@
+package mancala;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Measures saving a game in progress with Saver and loading it back, in a temporary
+ * directory rather than the assets directory the game saves to
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SaverBenchmark {
+
+    @Param({"3", "4", "6", "10"})
+    private int stones;
+
+    private MancalaGame game;
+    private Path directory;
+    private Path file;
+
+    @Setup
+    public void setUp() throws InvalidMoveException, IOException {
+        directory = Files.createTempDirectory("saver-benchmark");
+        file = directory.resolve("game.ser");
+        game = new MancalaGame(new KalahRules());
+        game.setPlayers(new Player("one"), new Player("two"));
+        Boards.fill(game.getBoard(), stones);
+        game.move(3);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path left : (Iterable<Path>) files::iterator) {
+                Files.delete(left);
+            }
+        }
+        Files.delete(directory);
+    }
+
+    /**
+     * Writes the game to a file and reads it back
+     *
+     * @return The loaded game
+     * @throws IOException If the file could not be written or read
+     */
+    @Benchmark
+    public Serializable saveAndLoad() throws IOException {
+        Saver.saveFile(game, file);
+        return Saver.loadFile(file);
+    }
+}
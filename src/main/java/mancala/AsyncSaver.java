@@ -0,0 +1,147 @@
+package mancala;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Saves games and players on a background thread so the caller never waits for the disk
+ *
+ * The object is turned into bytes on the calling thread, so it can be changed again as soon
+ * as save returns, and the bytes are written by a single writer thread in the order the saves
+ * were made. Each file is written to a temporary file and renamed over the old one, as Saver does.
+ *
+ * Saves to the same file that are still waiting to be written are merged: the newest bytes
+ * replace the waiting ones and every caller gets the same future, which completes once the
+ * newest state is on disk.
+ * @see Saver
+ */
+public class AsyncSaver implements AutoCloseable {
+
+    private static final long CLOSE_TIMEOUT_SECONDS = 10;
+
+    private final ExecutorService writer;
+    private final Map<Path, PendingSave> pending = new HashMap<>(); // guarded by itself
+    private long writes;
+
+    /**
+     * Creates an AsyncSaver with its own writer thread
+     */
+    public AsyncSaver() {
+        this(Executors.newSingleThreadExecutor(task -> {
+            final Thread thread = new Thread(task, "mancala-saver");
+            thread.setDaemon(true);
+            return thread;
+        }));
+    }
+
+    /*writes on a given single thread executor, which the saver shuts down when closed*/
+    /* default */ AsyncSaver(final ExecutorService executor) {
+        writer = executor;
+    }
+
+    /**
+     * Saves a serializable object to a file in the assets directory, as Saver.saveObject does
+     *
+     * @param toSave   The serializable object to be saved
+     * @param filename The file where the object is to be stored
+     * @return A future that completes when the object, or a newer save to the same file, is written
+     */
+    public CompletableFuture<Void> saveObject(final Serializable toSave, final String filename) {
+        try {
+            return saveFile(toSave, Saver.savePath(filename));
+        } catch (IOException err) {
+            return CompletableFuture.failedFuture(err);
+        }
+    }
+
+    /**
+     * Saves a serializable object to any file
+     *
+     * @param toSave The serializable object to be saved
+     * @param file   The file where the object is to be stored
+     * @return A future that completes when the object, or a newer save to the same file, is written
+     */
+    public CompletableFuture<Void> saveFile(final Serializable toSave, final Path file) {
+        final byte[] data;
+        try {
+            data = Saver.toBytes(toSave);
+        } catch (IOException err) {
+            return CompletableFuture.failedFuture(err);
+        }
+        final Path target = file.toAbsolutePath();
+        synchronized (pending) {
+            final PendingSave waiting = pending.get(target);
+            if (waiting != null) {
+                waiting.data = data;
+                return waiting.done;
+            }
+            final PendingSave save = new PendingSave(data);
+            try {
+                writer.execute(() -> write(target));
+            } catch (RejectedExecutionException err) {
+                return CompletableFuture.failedFuture(new IOException("Saver is closed", err));
+            }
+            pending.put(target, save);
+            return save.done;
+        }
+    }
+
+    /*runs on the writer thread, taking the newest bytes for the file so later saves queue a new write*/
+    private void write(final Path target) {
+        final PendingSave save;
+        synchronized (pending) {
+            save = pending.remove(target);
+            writes++;
+        }
+        try {
+            Saver.writeAtomically(target, save.data);
+            save.done.complete(null);
+        } catch (IOException | RuntimeException err) {
+            save.done.completeExceptionally(err);
+        }
+    }
+
+    /**
+     * Gets how many times a file has been written, which is fewer than the saves made when some were merged
+     *
+     * @return The number of writes started
+     */
+    public long getWriteCount() {
+        synchronized (pending) {
+            return writes;
+        }
+    }
+
+    /**
+     * Writes every save already made and stops the writer thread
+     */
+    @Override
+    public void close() {
+        writer.shutdown();
+        try {
+            writer.awaitTermination(CLOSE_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException err) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * The newest bytes waiting to be written to one file and the future shared by everyone who saved them
+     */
+    private static final class PendingSave {
+        private byte[] data;
+        private final CompletableFuture<Void> done = new CompletableFuture<>();
+
+        private PendingSave(final byte[] bytes) {
+            data = bytes;
+        }
+    }
+}
@@ -9,28 +9,69 @@ public class AyoRules extends GameRules {
     private static final long serialVersionUID = 8868613842003379656L;
 
     /**
-     * Perform a move and return the number of stones added to the player's store.
+     * Creates an AyoRules object
+     */
+    public AyoRules() {
+        super();
+    }
+
+    /**
+     * Creates an AyoRules object with a chosen board backend
+     *
+     * @param packedBoard Whether the board should be held in a packed int array
+     */
+    public AyoRules(final boolean packedBoard) {
+        super(packedBoard);
+    }
+
+    /**
+     * Creates an AyoRules object on a board of any size
+     *
+     * @param geometry    The number of pits on each side and starting stones
+     * @param packedBoard Whether the board should be held in a packed int array
+     */
+    public AyoRules(final BoardGeometry geometry, final boolean packedBoard) {
+        super(geometry, packedBoard);
+    }
+
+    /**
+     * Creates a new AyoRules object with the same geometry on a packed board
+     *
+     * @return The new rules
+     */
+    @Override
+    /* default */ GameRules newRules() {
+        return new AyoRules(getGeometry(), true);
+    }
+
+    /**
+     * Gets the rule variant, which is Ayo for these rules and any rules built on them
+     *
+     * @return BoardSnapshot.AYO
+     */
+    @Override
+    public int getVariant() {
+        return BoardSnapshot.AYO;
+    }
+
+    /**
+     * Perform a legal move for the current player and return the number of stones added to their store.
      *
      * @param startPit  The starting pit for the move.
-     * @param playerNum The player making the move.
      * @return The number of stones added to the player's store.
-     * @throws InvalidMoveException If the move is invalid.
      */
     @Override
-    public int moveStones(final int startPit, final int playerNum) throws InvalidMoveException {
-        if (!isValidMove(startPit) || playerNum != getCurrentPlayer()) {
-            throw new InvalidMoveException("Must choose pit on your side");
-        }
+    /* default */ int applyMove(final int startPit) {
+        final int playerNum = getCurrentPlayer();
         final int playerStones = getStoreCount(playerNum);
-        if (distributeStones(startPit) == 0) {
-            throw new InvalidMoveException("Cannot chose empty pit");
-        }
+        distributeStones(startPit);
         final MancalaDataStructure structure = getDataStructure();
         final int currentPit = structure.getIteratorPos();
         if (shouldCaptureStones(pitPos(currentPit))){
             int stolenStones;
             stolenStones = captureStones(pitPos(currentPit));
             structure.addToStore(playerNum, stolenStones);
+            recordCapture(stolenStones);
         }
         switchPlayers();
         return getStoreCount(playerNum) - playerStones;
@@ -38,6 +79,8 @@ public class AyoRules extends GameRules {
 
     /**
      * Distribute stones from a pit and return the number distributed.
+     * Each lap of the relay is sown in one pass, picking the stones back up
+     * whenever the last one lands in a pit that was not empty.
      *
      * @param startPit The starting pit for distribution.
      * @return The number of stones distributed.
@@ -45,23 +88,17 @@ public class AyoRules extends GameRules {
     @Override
     /* default */ int distributeStones(final int startPit) {
         int stones;
+        int lastCount;
         int totalStones = 0;
-        Countable current = null;
         final MancalaDataStructure structure = getDataStructure();
         structure.setIterator(startPit, getCurrentPlayer(), true);
         stones = structure.removeStones(startPit);
         do {
             totalStones += stones;
-            for (int i = 0; i < stones; i++) {
-                current = structure.next();
-                current.addStone();
-            }
+            lastCount = structure.sow(stones);
             stones = 0;
-            if (current != null && current.getClass() != Store.class) {
-                stones = current.getStoneCount();
-                if (stones > 1) {
-                    stones = current.removeStones();
-                }
+            if (totalStones > 0 && lastCount > 1 && !structure.isIteratorOnStore()) {
+                stones = structure.removeStones(pitPos(structure.getIteratorPos()));
             }
         } while (stones > 1);
         return totalStones;
@@ -77,8 +114,9 @@ public class AyoRules extends GameRules {
     /* default */ int captureStones(final int stoppingPoint) {
         int stolenStones = 0;
         final MancalaDataStructure structure = getDataStructure();
-        if (stoppingPoint > 0 && stoppingPoint < 13){
-            stolenStones = structure.removeStones(12 - (stoppingPoint-1));
+        final BoardGeometry geometry = getGeometry();
+        if (geometry.getSide(stoppingPoint) != 0){
+            stolenStones = structure.removeStones(geometry.getOppositePit(stoppingPoint));
         }
         return stolenStones;
     }
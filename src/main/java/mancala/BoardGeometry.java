@@ -0,0 +1,228 @@
+package mancala;
+
+import java.io.Serializable;
+
+/**
+ * The shape of a Mancala board: how many pits each player has and how many stones start in each
+ *
+ * Pits are numbered from 1 to twice the pits per side, player 1's first. Inside a
+ * MancalaDataStructure the positions run through player 1's pits, player 1's store,
+ * player 2's pits and player 2's store, so with N pits per side the stores sit at
+ * positions N and 2N + 1. Everything the rules work out from the layout on each move is
+ * kept in tables built once here: the position of each pit number, the pit number of each
+ * position, the pit across from each pit and, for each player, the hole sowing moves to
+ * after each position, which skips the opponent's store.
+ * @see MancalaDataStructure
+ */
+public final class BoardGeometry implements Serializable {
+    private static final long serialVersionUID = 5137462201936847001L;
+
+    /** The most pits a side may have, so every pit number fits in a legal move bitmask */
+    public static final int MAX_PITS_PER_SIDE = 15;
+    /** The board the game is normally played on, six pits a side with four stones in each */
+    public static final BoardGeometry STANDARD = new BoardGeometry(6, 4);
+
+    private final int pitsPerSide;
+    private final int startStones;
+    // the tables are rebuilt by readResolve
+    transient private final int[] pitIndex;    // position of each pit number
+    transient private final int[] pitNumber;   // pit number the rules use for each position
+    transient private final int[] oppositePit; // pit across from each pit number
+    transient private final int[][] nextHole;  // position after each position, for each player
+
+    private BoardGeometry(final int pits, final int stones) {
+        pitsPerSide = pits;
+        startStones = stones;
+        final int pitCount = 2 * pits;
+        final int holeCount = pitCount + 2;
+        pitIndex = new int[pitCount + 1];
+        oppositePit = new int[pitCount + 1];
+        pitIndex[0] = -1;
+        for (int pit = 1; pit <= pitCount; pit++) {
+            pitIndex[pit] = pit <= pits ? pit - 1 : pit;
+            oppositePit[pit] = pitCount + 1 - pit;
+        }
+        pitNumber = new int[holeCount];
+        for (int index = 0; index < holeCount; index++) {
+            pitNumber[index] = index < pits ? index + 1 : index;
+        }
+        nextHole = new int[2][holeCount];
+        for (int player = 1; player <= 2; player++) {
+            final int skippedStore = player == 1 ? pitCount + 1 : pits;
+            for (int index = 0; index < holeCount; index++) {
+                int next = (index + 1) % holeCount;
+                if (next == skippedStore) {
+                    next = (next + 1) % holeCount;
+                }
+                nextHole[player - 1][index] = next;
+            }
+        }
+    }
+
+    /**
+     * Gets the geometry for a board size
+     *
+     * @param pits   The number of pits on each side, from 1 to 15
+     * @param stones The number of stones each pit starts with
+     * @return The geometry
+     */
+    public static BoardGeometry of(final int pits, final int stones) {
+        if (pits < 1 || pits > MAX_PITS_PER_SIDE) {
+            throw new IllegalArgumentException("Pits per side must be between 1 and " + MAX_PITS_PER_SIDE);
+        }
+        if (stones < 0) {
+            throw new IllegalArgumentException("Starting stones cannot be negative");
+        }
+        if (pits == STANDARD.pitsPerSide && stones == STANDARD.startStones) {
+            return STANDARD;
+        }
+        return new BoardGeometry(pits, stones);
+    }
+
+    /**
+     * Gets the number of pits on each side
+     *
+     * @return The pits per side
+     */
+    public int getPitsPerSide() {
+        return pitsPerSide;
+    }
+
+    /**
+     * Gets the number of pits on the whole board
+     *
+     * @return The pit count, the highest pit number
+     */
+    public int getPitCount() {
+        return 2 * pitsPerSide;
+    }
+
+    /**
+     * Gets the number of positions on the board, pits and stores together
+     *
+     * @return The position count
+     */
+    public int getHoleCount() {
+        return 2 * pitsPerSide + 2;
+    }
+
+    /**
+     * Gets the number of stones each pit starts with
+     *
+     * @return The starting stones
+     */
+    public int getStartStones() {
+        return startStones;
+    }
+
+    /**
+     * Gets the first pit on a player's side
+     *
+     * @param playerNum The player number (1 or 2)
+     * @return The pit number
+     */
+    public int getFirstPit(final int playerNum) {
+        return playerNum == 2 ? pitsPerSide + 1 : 1;
+    }
+
+    /**
+     * Gets which player's side a pit is on
+     *
+     * @param pitNum The pit number
+     * @return The player number (1 or 2), or 0 if there is no such pit
+     */
+    public int getSide(final int pitNum) {
+        if (pitNum < 1 || pitNum > 2 * pitsPerSide) {
+            return 0;
+        }
+        return pitNum <= pitsPerSide ? 1 : 2;
+    }
+
+    /**
+     * Gets the position of a player's store
+     *
+     * @param playerNum The player number (1 or 2)
+     * @return The position of the store
+     */
+    public int getStoreIndex(final int playerNum) {
+        return playerNum == 2 ? 2 * pitsPerSide + 1 : pitsPerSide;
+    }
+
+    /**
+     * Gets the position of a pit
+     *
+     * @param pitNum The pit number, from 1 to the pit count
+     * @return The position of the pit
+     */
+    public int getPitIndex(final int pitNum) {
+        return pitIndex[pitNum];
+    }
+
+    /**
+     * Gets the pit number the rules use for a position. As on the standard board,
+     * player 1's store reads as player 1's last pit and player 2's store as one past the last pit.
+     *
+     * @param index The position
+     * @return The pit number
+     */
+    public int getPitNumber(final int index) {
+        return pitNumber[index];
+    }
+
+    /**
+     * Gets the pit across the board from a pit
+     *
+     * @param pitNum The pit number
+     * @return The number of the opposite pit
+     */
+    public int getOppositePit(final int pitNum) {
+        return oppositePit[pitNum];
+    }
+
+    /**
+     * Gets the position sowing moves to after a position, skipping the opponent's store
+     *
+     * @param playerNum The player sowing (1 or 2)
+     * @param index     The position
+     * @return The next position
+     */
+    public int getNextHole(final int playerNum, final int index) {
+        return nextHole[playerNum - 1][index];
+    }
+
+    /*the whole next hole table for a player, shared with MancalaDataStructure and never changed*/
+    /* default */ int[] getNextHoles(final int playerNum) {
+        return nextHole[playerNum - 1];
+    }
+
+    private Object readResolve() {
+        return of(pitsPerSide, startStones);
+    }
+
+    @Override
+    public boolean equals(final Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof BoardGeometry)) {
+            return false;
+        }
+        final BoardGeometry geometry = (BoardGeometry) other;
+        return pitsPerSide == geometry.pitsPerSide && startStones == geometry.startStones;
+    }
+
+    @Override
+    public int hashCode() {
+        return pitsPerSide * 31 + startStones;
+    }
+
+    /**
+     * Returns a string representation of the geometry
+     *
+     * @return The pits per side and starting stones, such as "(6,4)"
+     */
+    @Override
+    public String toString() {
+        return "(" + pitsPerSide + "," + startStones + ")";
+    }
+}
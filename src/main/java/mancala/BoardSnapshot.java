@@ -0,0 +1,219 @@
+package mancala;
+
+import java.io.Serializable;
+
+/**
+ * An immutable copy of a position in a Mancala game
+ *
+ * Holds the pits, stores, player to move and rule variant in a few fields so large numbers
+ * of positions can be kept in memory and used as keys for caches and searches.
+ * Pits are packed one byte each, so no pit may hold more than 255 stones,
+ * and boards with up to eight pits a side fit.
+ * @see GameRules
+ */
+public final class BoardSnapshot implements Serializable {
+    private static final long serialVersionUID = 2466190151366719432L;
+
+    /** Rule variant for KalahRules, matching the rule numbers used by MancalaGame */
+    public static final int KALAH = 1;
+    /** Rule variant for AyoRules, matching the rule numbers used by MancalaGame */
+    public static final int AYO = 2;
+
+    transient private static final int PITS_PER_LONG = 8;
+    transient private static final int MAX_PITS = 2 * PITS_PER_LONG;
+    transient private static final int MAX_PIT_STONES = 0xFF;
+
+    private final long lowPits;  // pits 1 to 8, one byte each
+    private final long highPits; // pits 9 to 16, one byte each
+    private final short storeOne;
+    private final short storeTwo;
+    private final byte currentPlayer;
+    private final byte rules;
+    private final byte pitsPerSide;
+    private final int hash;
+
+    private BoardSnapshot(final long low, final long high, final int one, final int two,
+                          final int player, final int variant, final int side) {
+        lowPits = low;
+        highPits = high;
+        storeOne = (short) one;
+        storeTwo = (short) two;
+        currentPlayer = (byte) player;
+        rules = (byte) variant;
+        pitsPerSide = (byte) side;
+        hash = computeHash();
+    }
+
+    /**
+     * Creates a snapshot of the current position of a game
+     *
+     * @param game The rules holding the position
+     * @return The snapshot of the position
+     */
+    public static BoardSnapshot of(final GameRules game) {
+        final int pits = game.getGeometry().getPitCount();
+        if (pits > MAX_PITS) {
+            throw new IllegalArgumentException("Board has too many pits for a snapshot");
+        }
+        long low = 0;
+        long high = 0;
+        for (int pit = pits; pit >= 1; pit--) {
+            final int stones = game.getNumStones(pit);
+            if (stones > MAX_PIT_STONES) {
+                throw new IllegalArgumentException("Pit " + pit + " holds too many stones for a snapshot");
+            }
+            if (pit > PITS_PER_LONG) {
+                high = high << Byte.SIZE | stones;
+            } else {
+                low = low << Byte.SIZE | stones;
+            }
+        }
+        final int one = game.getStoreCount(1);
+        final int two = game.getStoreCount(2);
+        if (one > Short.MAX_VALUE || two > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("Store holds too many stones for a snapshot");
+        }
+        return new BoardSnapshot(low, high, one, two, game.getCurrentPlayer(), variantOf(game), pits / 2);
+    }
+
+    /**
+     * Gets the rule variant number of a set of game rules
+     *
+     * @param game The game rules
+     * @return KALAH or AYO
+     */
+    public static int variantOf(final GameRules game) {
+        return game.getVariant();
+    }
+
+    /**
+     * Writes this position back into a set of game rules
+     *
+     * @param game The rules to restore the position into, must be of the same variant and board size
+     */
+    public void restore(final GameRules game) {
+        if (variantOf(game) != rules) {
+            throw new IllegalArgumentException("Snapshot is for a different rule variant");
+        }
+        if (game.getGeometry().getPitsPerSide() != pitsPerSide) {
+            throw new IllegalArgumentException("Snapshot is for a different board size");
+        }
+        final MancalaDataStructure structure = game.getDataStructure();
+        for (int pit = 1; pit <= 2 * pitsPerSide; pit++) {
+            structure.removeStones(pit);
+            structure.addStones(pit, getNumStones(pit));
+        }
+        structure.addToStore(1, storeOne - structure.getStoreCount(1));
+        structure.addToStore(2, storeTwo - structure.getStoreCount(2));
+        game.setCurrentPlayer(currentPlayer);
+    }
+
+    /**
+     * Gets the number of stones in a pit
+     *
+     * @param pitNum The number of the pit (1 to twice the pits per side)
+     * @return The number of stones in the pit
+     */
+    public int getNumStones(final int pitNum) {
+        if (pitNum < 1 || pitNum > 2 * pitsPerSide) {
+            throw new RuntimeException("Pit Number Out of Range");
+        }
+        int stones;
+        if (pitNum > PITS_PER_LONG) {
+            stones = (int) (highPits >>> ((pitNum - PITS_PER_LONG - 1) * Byte.SIZE)) & MAX_PIT_STONES;
+        } else {
+            stones = (int) (lowPits >>> ((pitNum - 1) * Byte.SIZE)) & MAX_PIT_STONES;
+        }
+        return stones;
+    }
+
+    /**
+     * Gets the stone count in a player's store
+     *
+     * @param playerNum The player number (1 or 2)
+     * @return The stone count in the player's store
+     */
+    public int getStoreCount(final int playerNum) {
+        int stones = storeOne;
+        if (playerNum == 2) {
+            stones = storeTwo;
+        }
+        return stones;
+    }
+
+    /**
+     * Gets the number of the player whos turn is next
+     *
+     * @return The player number (1 or 2)
+     */
+    public int getCurrentPlayer() {
+        return currentPlayer;
+    }
+
+    /**
+     * Gets the number of pits on each side of the board the position was taken from
+     *
+     * @return The pits per side
+     */
+    public int getPitsPerSide() {
+        return pitsPerSide;
+    }
+
+    /**
+     * Gets the rule variant of the position
+     *
+     * @return KALAH or AYO
+     */
+    public int getRules() {
+        return rules;
+    }
+
+    private int computeHash() {
+        long mixed = lowPits * 0x9E3779B97F4A7C15L;
+        mixed ^= Long.rotateLeft(highPits * 0xC2B2AE3D27D4EB4FL, 31);
+        mixed ^= ((long) storeOne << 32 | (storeTwo & 0xFFFF) << 16 | currentPlayer << 8 | rules) * 0x165667B19E3779F9L;
+        mixed ^= pitsPerSide * 0xD6E8FEB86659FD93L;
+        mixed ^= mixed >>> 29;
+        return Long.hashCode(mixed);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public boolean equals(final Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof BoardSnapshot)) {
+            return false;
+        }
+        final BoardSnapshot snapshot = (BoardSnapshot) other;
+        return hash == snapshot.hash && lowPits == snapshot.lowPits && highPits == snapshot.highPits
+            && storeOne == snapshot.storeOne && storeTwo == snapshot.storeTwo
+            && currentPlayer == snapshot.currentPlayer && rules == snapshot.rules
+            && pitsPerSide == snapshot.pitsPerSide;
+    }
+
+    /**
+     * Returns a string representation of the snapshot
+     *
+     * @return The string that represents the snapshot
+     */
+    @Override
+    public String toString() {
+        final StringBuilder string = new StringBuilder();
+        for (int i = 2 * pitsPerSide; i > pitsPerSide; i--) {
+            string.append(String.format("[%2d]", getNumStones(i)));
+        }
+        final String middle = " ".repeat(Math.max(0, 4 * pitsPerSide - 8));
+        string.append(String.format("%n[%2d]" + middle + "[%2d]%n", storeTwo, storeOne));
+        for (int i = 1; i <= pitsPerSide; i++) {
+            string.append(String.format("[%2d]", getNumStones(i)));
+        }
+        string.append(String.format("%nPlayer %d to move%n", currentPlayer));
+        return string.toString();
+    }
+}
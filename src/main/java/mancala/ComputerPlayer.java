@@ -0,0 +1,65 @@
+package mancala;
+
+/**
+ * A class that represents a player whose moves are chosen by the computer
+ *
+ * @see MoveStrategy
+ * @see SearchEngine
+ */
+public class ComputerPlayer extends Player {
+    private static final long serialVersionUID = 4311187926360287611L;
+
+    transient private MoveStrategy strategy;
+
+    /**
+     * Creates new ComputerPlayer object that searches with the default SearchEngine
+     *
+     * @param newName The name of the new ComputerPlayer object
+     */
+    public ComputerPlayer(final String newName) {
+        this(newName, new SearchEngine());
+    }
+
+    /**
+     * Creates new ComputerPlayer object
+     *
+     * @param newName     The name of the new ComputerPlayer object
+     * @param newStrategy The strategy used to choose moves
+     */
+    public ComputerPlayer(final String newName, final MoveStrategy newStrategy) {
+        super(newName);
+        strategy = newStrategy;
+    }
+
+    /**
+     * Gets the strategy used to choose moves. A player loaded from a file
+     * gets the default SearchEngine.
+     *
+     * @return The strategy of the player
+     */
+    public MoveStrategy getStrategy() {
+        if (strategy == null) {
+            strategy = new SearchEngine();
+        }
+        return strategy;
+    }
+
+    /**
+     * Sets the strategy used to choose moves
+     *
+     * @param newStrategy The new strategy of the player
+     */
+    public void setStrategy(final MoveStrategy newStrategy) {
+        strategy = newStrategy;
+    }
+
+    /**
+     * Chooses a pit to play in a game where it is this player's turn
+     *
+     * @param game The game being played
+     * @return The pit to play
+     */
+    public int chooseMove(final MancalaGame game) {
+        return getStrategy().chooseMove(game.getBoard());
+    }
+}
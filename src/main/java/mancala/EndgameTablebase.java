@@ -0,0 +1,320 @@
+package mancala;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * A table of perfect play results for KalahRules positions with few stones left on the pits
+ *
+ * Every position with up to a chosen number of stones on the twelve pits is solved by playing
+ * out all of its moves with KalahRules. Because a Kalah move never adds stones to the pits and
+ * a move that keeps them all on the pits only pushes stones forward on the mover's side, no
+ * position can repeat, and each position is solved once from the positions it leads to.
+ *
+ * A position is found by ranking its pits with the combinatorial number system: all the
+ * positions with n stones come after all the positions with fewer, so the table is a plain
+ * array with one byte per position and player to move and needs no hashing. Each byte holds
+ * how many more stones the player to move will bank than the opponent from that point on.
+ *
+ * A loaded table is memory-mapped rather than read into the heap, so it is ready as soon as
+ * the header is checked and pages are only read from disk when probed. Probes only use
+ * absolute reads on the buffer, so any number of threads can share one table.
+ * @see SearchEngine
+ */
+public class EndgameTablebase {
+
+    /** Returned by probe for positions the table does not cover */
+    public static final int UNKNOWN = Integer.MIN_VALUE;
+    /** The directory tables are generated into and opened from by default */
+    public static final String ASSET_DIRECTORY = "assets";
+
+    /* default */ static final int MAGIC = 0x4D4B5442; // "MKTB"
+    /* default */ static final int VERSION = 1;
+    /* default */ static final int HEADER_SIZE = 4 * Integer.BYTES;
+    private static final int PITS = 12;
+    private static final int SIDE = PITS / 2;
+    private static final int MAX_STONES = 100;
+    private static final byte UNSOLVED = Byte.MIN_VALUE;
+
+    private final int maxStones;
+    private final long[][] binomials;
+    private final long positions; // positions for one player to move
+    private final ByteBuffer values;
+
+    private EndgameTablebase(final int stones, final ByteBuffer table) {
+        maxStones = stones;
+        binomials = binomials(stones + PITS);
+        positions = binomials[stones + PITS][PITS];
+        values = table;
+        if (values.capacity() - HEADER_SIZE != 2 * positions) {
+            throw new IllegalArgumentException("Table size does not match its header");
+        }
+    }
+
+    /**
+     * Solves every position with up to a number of stones on the pits and writes the table to a file
+     *
+     * @param stones The most stones left on the pits, from 0 to 100
+     * @param file   The file to write the table to
+     * @return The table that was written
+     * @throws IOException If the file could not be written
+     */
+    public static EndgameTablebase generate(final int stones, final Path file) throws IOException {
+        final EndgameTablebase table = solve(stones);
+        final Path directory = file.toAbsolutePath().getParent();
+        if (directory != null) {
+            Files.createDirectories(directory);
+        }
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(file))) {
+            final ByteBuffer buffer = table.values.duplicate();
+            buffer.clear();
+            out.write(buffer.array(), buffer.arrayOffset(), buffer.capacity());
+        }
+        return table;
+    }
+
+    /**
+     * Solves every position with up to a number of stones on the pits, in memory
+     *
+     * @param stones The most stones left on the pits, from 0 to 100
+     * @return The solved table
+     */
+    public static EndgameTablebase solve(final int stones) {
+        if (stones < 0 || stones > MAX_STONES) {
+            throw new IllegalArgumentException("Stones must be between 0 and " + MAX_STONES);
+        }
+        final long[][] table = binomials(stones + PITS);
+        final long size = 2 * table[stones + PITS][PITS];
+        if (size > Integer.MAX_VALUE - HEADER_SIZE) {
+            throw new IllegalArgumentException("Too many positions to solve");
+        }
+        final ByteBuffer buffer = ByteBuffer.allocate((int) size + HEADER_SIZE);
+        buffer.putInt(MAGIC).putInt(VERSION).putInt(PITS).putInt(stones);
+        final byte[] array = buffer.array();
+        Arrays.fill(array, HEADER_SIZE, array.length, UNSOLVED);
+        final EndgameTablebase tablebase = new EndgameTablebase(stones, buffer);
+        new Solver(tablebase).solveAll();
+        return tablebase;
+    }
+
+    /**
+     * Maps a table written by generate into memory
+     *
+     * @param file The file holding the table
+     * @return The table
+     * @throws IOException If the file could not be read or is not a table
+     */
+    public static EndgameTablebase load(final Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Endgame table is too large to map");
+            }
+            // the mapping stays valid after the channel is closed
+            return fromBuffer(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Maps the table for a stone count from the asset directory
+     *
+     * @param stones The most stones left on the pits the table was generated for
+     * @return The table
+     * @throws IOException If the file could not be read or is not a table
+     */
+    public static EndgameTablebase loadAsset(final int stones) throws IOException {
+        return load(assetPath(stones));
+    }
+
+    /**
+     * Gets where the table for a stone count is kept in the asset directory
+     *
+     * @param stones The most stones left on the pits
+     * @return The path of the table file
+     */
+    public static Path assetPath(final int stones) {
+        return Path.of(ASSET_DIRECTORY, "kalah-" + stones + ".tb");
+    }
+
+    /*checks the header of a table and wraps it*/
+    /* default */ static EndgameTablebase fromBuffer(final ByteBuffer buffer) throws IOException {
+        if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+            throw new IOException("Not an endgame table");
+        }
+        if (buffer.getInt(Integer.BYTES) != VERSION || buffer.getInt(2 * Integer.BYTES) != PITS) {
+            throw new IOException("Unsupported endgame table");
+        }
+        final int stones = buffer.getInt(3 * Integer.BYTES);
+        if (stones < 0 || stones > MAX_STONES) {
+            throw new IOException("Endgame table stone count out of range");
+        }
+        try {
+            return new EndgameTablebase(stones, buffer);
+        } catch (IllegalArgumentException err) {
+            throw new IOException(err.getMessage());
+        }
+    }
+
+    /**
+     * Gets the most stones left on the pits that the table covers
+     *
+     * @return The stone count
+     */
+    public int getMaxStones() {
+        return maxStones;
+    }
+
+    /**
+     * Determines if the table holds a position
+     *
+     * @param rules The game rules holding the position
+     * @return Whether the rules are KalahRules on a six pit board with few enough stones on the pits
+     */
+    public boolean covers(final GameRules rules) {
+        if (BoardSnapshot.variantOf(rules) != BoardSnapshot.KALAH || rules.getGeometry().getPitsPerSide() != SIDE) {
+            return false;
+        }
+        return rules.getSideCount(1) + rules.getSideCount(2) <= maxStones;
+    }
+
+    /**
+     * Gets the final store difference for the player to move when both sides play perfectly
+     *
+     * @param rules The game rules holding the position
+     * @return The player to move's final store count minus the opponent's, or UNKNOWN
+     */
+    public int probe(final GameRules rules) {
+        if (!covers(rules)) {
+            return UNKNOWN;
+        }
+        final int player = rules.getCurrentPlayer();
+        return rules.getStoreCount(player) - rules.getStoreCount(3 - player) + valueOf(rules);
+    }
+
+    /*how many more stones the player to move banks from here on*/
+    private int valueOf(final GameRules rules) {
+        return values.get(HEADER_SIZE + (int) indexOf(rules));
+    }
+
+    /*where a position sits in the table, ranking its pits with the combinatorial number system*/
+    private long indexOf(final GameRules rules) {
+        int stones = 0;
+        long rank = 0;
+        for (int pit = 1; pit < PITS; pit++) {
+            stones += rules.getNumStones(pit);
+            rank += binomials[stones + pit - 1][pit]; // position of the pit's closing bar
+        }
+        stones += rules.getNumStones(PITS);
+        long index = binomials[stones + PITS - 1][PITS] + rank; // positions with fewer stones come first
+        if (rules.getCurrentPlayer() == 2) {
+            index += positions;
+        }
+        return index;
+    }
+
+    private static long[][] binomials(final int rows) {
+        final long[][] table = new long[rows + 1][PITS + 1];
+        for (int n = 0; n <= rows; n++) {
+            table[n][0] = 1;
+            for (int k = 1; k <= Math.min(n, PITS); k++) {
+                table[n][k] = table[n - 1][k - 1] + (k <= n - 1 ? table[n - 1][k] : 0);
+            }
+        }
+        return table;
+    }
+
+    /**
+     * Generates a table from the command line
+     *
+     * @param args The most stones left on the pits, then optionally the file to write
+     * @throws IOException If the file could not be written
+     */
+    public static void main(final String[] args) throws IOException {
+        if (args.length < 1) {
+            System.out.println("Usage: EndgameTablebase <maxStones> [file]");
+            return;
+        }
+        final int stones = Integer.parseInt(args[0]);
+        final Path file = args.length > 1 ? Path.of(args[1]) : assetPath(stones);
+        final long start = System.nanoTime();
+        final EndgameTablebase table = generate(stones, file);
+        System.out.printf("Solved %d positions in %.1f s to %s%n", 2 * table.positions,
+            (System.nanoTime() - start) / 1e9, file);
+    }
+
+    /**
+     * Plays out every position on one packed KalahRules board, remembering results in the table
+     */
+    private static final class Solver {
+        private final EndgameTablebase table;
+        private final KalahRules rules = new KalahRules(true);
+        private final MancalaDataStructure board = rules.getDataStructure();
+        private final byte[] values;
+
+        private Solver(final EndgameTablebase tablebase) {
+            table = tablebase;
+            values = tablebase.values.array();
+        }
+
+        private void solveAll() {
+            for (int pit = 1; pit <= PITS; pit++) {
+                board.removeStones(pit);
+            }
+            for (int stones = 0; stones <= table.maxStones; stones++) {
+                fill(1, stones);
+            }
+        }
+
+        /*places the remaining stones on the pits from this one on in every possible way*/
+        private void fill(final int pit, final int remaining) {
+            if (pit == PITS) {
+                board.addStones(pit, remaining);
+                rules.setCurrentPlayer(1);
+                valueOf();
+                rules.setCurrentPlayer(2);
+                valueOf();
+                board.removeStones(pit);
+                return;
+            }
+            for (int stones = 0; stones <= remaining; stones++) {
+                board.removeStones(pit);
+                board.addStones(pit, stones);
+                fill(pit + 1, remaining - stones);
+            }
+            board.removeStones(pit);
+        }
+
+        private int valueOf() {
+            final int index = HEADER_SIZE + (int) table.indexOf(rules);
+            if (values[index] != UNSOLVED) {
+                return values[index];
+            }
+            int value;
+            if (rules.isGameOver()) {
+                value = SearchEngine.finalScore(rules) - storeDifference();
+            } else {
+                value = -MAX_STONES;
+                final int mover = rules.getCurrentPlayer();
+                for (int moves = rules.getLegalMoves(); moves != 0; moves &= moves - 1) {
+                    final int gained = rules.makeMove(Integer.numberOfTrailingZeros(moves));
+                    final int rest = valueOf();
+                    value = Math.max(value, gained + (rules.getCurrentPlayer() == mover ? rest : -rest));
+                    rules.unmakeMove();
+                }
+            }
+            values[index] = (byte) value;
+            return value;
+        }
+
+        private int storeDifference() {
+            final int player = rules.getCurrentPlayer();
+            return rules.getStoreCount(player) - rules.getStoreCount(3 - player);
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package mancala;
+
+/**
+ * Interface representing a static evaluation of a Mancala position for a search
+ *
+ * @see SearchEngine
+ */
+public interface Evaluator {
+
+    /**
+     * Score a position from the point of view of the player whos turn it is.
+     * Higher scores are better for that player.
+     *
+     * @param rules The game rules holding the position.
+     * @return The score of the position.
+     */
+    int evaluate(GameRules rules);
+}
@@ -0,0 +1,245 @@
+package mancala;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.Serializable;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Reads and writes games and players in a compact binary format
+ *
+ * Java serialization writes a class descriptor for every class reachable from a game, which
+ * makes a saved game several times larger than the position it holds and slow to read back.
+ * This format only writes what a game needs to carry on: the rule variant, the board size,
+ * the player to move, every pit and store count, and the players' names and statistics.
+ *
+ * Every record starts with the four magic bytes "MNCL", a version byte and a kind byte, then:
+ * <pre>
+ * game:   rules(1) pitsPerSide(varint) startStones(varint) currentPlayer(1)
+ *         pit counts(varint each) store one(varint) store two(varint) player one player two
+ * player: type(1, 0 = none, 1 = human, 2 = computer) name(varint length, UTF-8)
+ *         kalah plays, kalah wins, ayo plays, ayo wins (varint each)
+ * </pre>
+ * Counts are written as unsigned LEB128 varints, so a pit with under 128 stones takes one byte.
+ * A file from Java serialization starts with 0xACED instead, which is how Saver tells them apart.
+ * @see Saver
+ */
+public final class GameCodec {
+
+    /** The first four bytes of every encoded record, "MNCL" */
+    public static final int MAGIC = 0x4D4E434C;
+    /** The version of the format written by this class */
+    public static final int VERSION = 1;
+
+    /* default */ static final int KIND_GAME = 1;
+    /* default */ static final int KIND_PLAYER = 2;
+    private static final int HEADER_SIZE = Integer.BYTES + 2;
+    private static final int NO_PLAYER = 0;
+    private static final int HUMAN = 1;
+    private static final int COMPUTER = 2;
+    private static final int VARINT_BITS = 7;
+    private static final int VARINT_MORE = 0x80;
+    private static final int VARINT_MASK = 0x7F;
+
+    private GameCodec() {
+    }
+
+    /**
+     * Determines if an object can be written in this format
+     *
+     * @param object The object to save
+     * @return Whether the object is a MancalaGame or a Player
+     */
+    public static boolean canEncode(final Serializable object) {
+        return object instanceof MancalaGame || object instanceof Player;
+    }
+
+    /**
+     * Determines if some bytes start with the header of this format
+     *
+     * @param data The bytes read from a file
+     * @return Whether the bytes start with the magic number
+     */
+    public static boolean isEncoded(final byte[] data) {
+        return data.length >= HEADER_SIZE && ByteBuffer.wrap(data).getInt(0) == MAGIC;
+    }
+
+    /**
+     * Writes a game, its position and its players
+     *
+     * @param object The MancalaGame or Player to write
+     * @return The encoded bytes
+     */
+    public static byte[] encode(final Serializable object) {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writeInt(out, MAGIC);
+        out.write(VERSION);
+        if (object instanceof MancalaGame) {
+            out.write(KIND_GAME);
+            writeGame(out, (MancalaGame) object);
+        } else if (object instanceof Player) {
+            out.write(KIND_PLAYER);
+            writePlayer(out, (Player) object);
+        } else {
+            throw new IllegalArgumentException("Only games and players can be encoded");
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Reads a game or player written by encode
+     *
+     * @param data The encoded bytes
+     * @return The MancalaGame or Player
+     * @throws IOException If the bytes are not a record of a supported version or are cut short
+     */
+    public static Serializable decode(final byte[] data) throws IOException {
+        if (!isEncoded(data)) {
+            throw new IOException("Not a saved game or player");
+        }
+        final ByteBuffer in = ByteBuffer.wrap(data);
+        in.position(Integer.BYTES);
+        if (in.get() != VERSION) {
+            throw new IOException("Unsupported save version");
+        }
+        try {
+            final int kind = in.get();
+            if (kind == KIND_GAME) {
+                return readGame(in);
+            }
+            if (kind == KIND_PLAYER) {
+                return readPlayer(in);
+            }
+            throw new IOException("Unknown record kind " + kind);
+        } catch (BufferUnderflowException | IllegalArgumentException err) {
+            throw new IOException("Corrupt save file", err);
+        }
+    }
+
+    private static void writeGame(final ByteArrayOutputStream out, final MancalaGame game) {
+        final GameRules rules = game.getBoard();
+        final BoardGeometry geometry = rules.getGeometry();
+        out.write(BoardSnapshot.variantOf(rules));
+        writeVarint(out, geometry.getPitsPerSide());
+        writeVarint(out, geometry.getStartStones());
+        out.write(rules.getCurrentPlayer());
+        for (int pit = 1; pit <= geometry.getPitCount(); pit++) {
+            writeVarint(out, rules.getNumStones(pit));
+        }
+        writeVarint(out, rules.getStoreCount(1));
+        writeVarint(out, rules.getStoreCount(2));
+        writePlayer(out, game.getPlayer(1));
+        writePlayer(out, game.getPlayer(2));
+    }
+
+    private static MancalaGame readGame(final ByteBuffer in) throws IOException {
+        final int variant = in.get();
+        final BoardGeometry geometry = BoardGeometry.of(readVarint(in), readVarint(in));
+        final int currentPlayer = in.get();
+        if (currentPlayer != 1 && currentPlayer != 2) {
+            throw new IOException("Corrupt save file");
+        }
+        final boolean packed = MancalaDataStructure.isPackedByDefault();
+        GameRules rules;
+        if (variant == BoardSnapshot.AYO) {
+            rules = new AyoRules(geometry, packed);
+        } else if (variant == BoardSnapshot.KALAH) {
+            rules = new KalahRules(geometry, packed);
+        } else {
+            throw new IOException("Unknown rules " + variant);
+        }
+        final MancalaDataStructure structure = rules.getDataStructure();
+        for (int pit = 1; pit <= geometry.getPitCount(); pit++) {
+            structure.removeStones(pit);
+            structure.addStones(pit, readVarint(in));
+        }
+        final int storeOne = readVarint(in);
+        final int storeTwo = readVarint(in);
+        final MancalaGame game = new MancalaGame(rules);
+        final Player one = readPlayer(in);
+        final Player two = readPlayer(in);
+        if (one != null && two != null) {
+            game.setPlayers(one, two);
+        }
+        structure.addToStore(1, storeOne - structure.getStoreCount(1));
+        structure.addToStore(2, storeTwo - structure.getStoreCount(2));
+        rules.setCurrentPlayer(currentPlayer);
+        return game;
+    }
+
+    private static void writePlayer(final ByteArrayOutputStream out, final Player player) {
+        if (player == null) {
+            out.write(NO_PLAYER);
+            return;
+        }
+        out.write(player instanceof ComputerPlayer ? COMPUTER : HUMAN);
+        final byte[] name = player.getName().getBytes(StandardCharsets.UTF_8);
+        writeVarint(out, name.length);
+        out.write(name, 0, name.length);
+        final UserProfile profile = player.getUserProfile();
+        writeVarint(out, profile.getKalaPlays());
+        writeVarint(out, profile.getKalaWins());
+        writeVarint(out, profile.getAyoPlays());
+        writeVarint(out, profile.getAyoWins());
+    }
+
+    private static Player readPlayer(final ByteBuffer in) throws IOException {
+        final int type = in.get();
+        if (type == NO_PLAYER) {
+            return null;
+        }
+        final int length = readVarint(in);
+        if (length > in.remaining()) {
+            throw new IOException("Corrupt player name in save file");
+        }
+        final byte[] name = new byte[length];
+        in.get(name);
+        final String playerName = new String(name, StandardCharsets.UTF_8);
+        Player player;
+        if (type == COMPUTER) {
+            player = new ComputerPlayer(playerName);
+        } else if (type == HUMAN) {
+            player = new Player(playerName);
+        } else {
+            throw new IOException("Unknown player type " + type);
+        }
+        player.getUserProfile().setStats(readVarint(in), readVarint(in), readVarint(in), readVarint(in));
+        return player;
+    }
+
+    private static void writeInt(final ByteArrayOutputStream out, final int value) {
+        for (int shift = Integer.SIZE - Byte.SIZE; shift >= 0; shift -= Byte.SIZE) {
+            out.write(value >>> shift);
+        }
+    }
+
+    /*writes a non-negative int seven bits at a time, low bits first*/
+    /* default */ static void writeVarint(final ByteArrayOutputStream out, final int value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("Cannot encode a negative count");
+        }
+        int remaining = value;
+        while (remaining > VARINT_MASK) {
+            out.write(remaining & VARINT_MASK | VARINT_MORE);
+            remaining >>>= VARINT_BITS;
+        }
+        out.write(remaining);
+    }
+
+    /* default */ static int readVarint(final ByteBuffer in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < Integer.SIZE; shift += VARINT_BITS) {
+            final int part = in.get();
+            value |= (part & VARINT_MASK) << shift;
+            if ((part & VARINT_MORE) == 0) {
+                if (value < 0) {
+                    break;
+                }
+                return value;
+            }
+        }
+        throw new IOException("Corrupt count");
+    }
+}
@@ -0,0 +1,58 @@
+package mancala;
+
+/**
+ * Interface for being told what happens in a MancalaGame as it happens, instead of polling it
+ *
+ * Every method does nothing by default, so a listener only overrides the events it cares about.
+ * Events are delivered on the thread that made the move, in the order the listeners were added,
+ * once the move is complete. A listener must not make moves on the game while it is being told
+ * about one.
+ * @see MancalaGame#addGameListener(GameListener)
+ */
+public interface GameListener {
+
+    /**
+     * Called after every move, before any of the other events it causes.
+     *
+     * @param game   The game the move was made in.
+     * @param change The changes the move made to the board.
+     */
+    default void moveApplied(MancalaGame game, MoveDelta change) {
+    }
+
+    /**
+     * Called when a move captures stones.
+     *
+     * @param game      The game the move was made in.
+     * @param playerNum The player who captured the stones (1 or 2).
+     * @param stones    The number of stones added to the player's store by the capture.
+     */
+    default void stonesCaptured(MancalaGame game, int playerNum, int stones) {
+    }
+
+    /**
+     * Called when a move earns the player another turn and the game is not over.
+     *
+     * @param game      The game the move was made in.
+     * @param playerNum The player who moves again (1 or 2).
+     */
+    default void bonusTurn(MancalaGame game, int playerNum) {
+    }
+
+    /**
+     * Called after the move that leaves a side empty, before the remaining stones are counted.
+     *
+     * @param game The game that has ended.
+     */
+    default void gameOver(MancalaGame game) {
+    }
+
+    /**
+     * Called once per game, the first time MancalaGame.getWinner settles the result.
+     *
+     * @param game   The game that has ended.
+     * @param winner The player who won, or null if the players tied.
+     */
+    default void winnerDecided(MancalaGame game, Player winner) {
+    }
+}
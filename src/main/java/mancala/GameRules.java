@@ -1,6 +1,7 @@
 package mancala;
 
 import java.io.Serializable;
+import java.util.Arrays;
 
 /**
  * Abstract class representing the rules of a Mancala game.
@@ -11,11 +12,22 @@ public abstract class GameRules implements Serializable{
 
     transient private final static int PLAYER_1 = 1;
     transient private final static int PLAYER_2 = 2;
-    transient private final static int PLAYER_1_STORE = 6;
-    transient private final static int PLAYER_2_STORE = 13;
+    transient private final static long PLAYER_2_KEY = 0x6A09E667F3BCC909L;
+    transient private final static long AYO_KEY = 0xBB67AE8584CAA73BL;
 
     final private MancalaDataStructure gameBoard;
     private int currentPlayer = 1; // Player number (1 or 2)
+    transient private int[] undoStack;
+    transient private int undoDepth;
+    transient private int undoFrame;
+    // the last checked move, kept so its MoveDelta is only built if someone asks for it
+    transient private int[] before; // the board before the move
+    transient private int lastPit;  // 0 until a move has been made
+    transient private int lastMover;
+    transient private int lastCaptured;
+    transient private int captured; // by the move being applied, whether played or searched
+    transient private long afterHash;
+    transient private MoveDelta lastChange;
 
     /**
      * Constructor to initialize the game board.
@@ -25,6 +37,26 @@ public abstract class GameRules implements Serializable{
         resetBoard();
     }
 
+    /**
+     * Constructor to initialize the game board with a chosen backend.
+     *
+     * @param packedBoard Whether the board should be held in a packed int array.
+     */
+    public GameRules(final boolean packedBoard) {
+        this(BoardGeometry.STANDARD, packedBoard);
+    }
+
+    /**
+     * Constructor to initialize a game board of any size with a chosen backend.
+     *
+     * @param geometry    The number of pits on each side and starting stones.
+     * @param packedBoard Whether the board should be held in a packed int array.
+     */
+    public GameRules(final BoardGeometry geometry, final boolean packedBoard) {
+        gameBoard = new MancalaDataStructure(geometry, packedBoard);
+        resetBoard();
+    }
+
     /**
      * Get the number of stones in a pit.
      *
@@ -45,6 +77,45 @@ public abstract class GameRules implements Serializable{
         return gameBoard.getStoreCount(storeNum);
     }
 
+    /**
+     * Creates a copy of the position on a packed board with no players registered,
+     * so it can be played on without changing this game.
+     *
+     * @return The copy of these rules and their board.
+     */
+    public GameRules copy() {
+        final GameRules copy = newRules();
+        final int[] state = new int[gameBoard.getStateSize()];
+        gameBoard.saveState(state, 0);
+        copy.gameBoard.restoreState(state, 0);
+        copy.currentPlayer = currentPlayer;
+        return copy;
+    }
+
+    /**
+     * Gets the number of pits on each side and starting stones of the board.
+     *
+     * @return The geometry of the board.
+     */
+    public BoardGeometry getGeometry() {
+        return gameBoard.getGeometry();
+    }
+
+    /**
+     * Creates a new set of rules of the same kind and geometry on a packed board.
+     *
+     * @return The new rules.
+     */
+    /* default */ abstract GameRules newRules();
+
+    /**
+     * Gets which rule variant these rules play, so positions of different variants
+     * never share a hash or a snapshot
+     *
+     * @return BoardSnapshot.KALAH or BoardSnapshot.AYO
+     */
+    public abstract int getVariant();
+
     /**
      * Get the game data structure.
      *
@@ -62,6 +133,23 @@ public abstract class GameRules implements Serializable{
         return currentPlayer;
     }
 
+    /**
+     * Gets a 64 bit hash of the position, combining the board hash kept by the
+     * data structure with the player to move and the rule variant.
+     *
+     * @return The hash of the current position
+     */
+    public long getPositionHash() {
+        long hash = gameBoard.getHash();
+        if (currentPlayer == PLAYER_2) {
+            hash ^= PLAYER_2_KEY;
+        }
+        if (getVariant() == BoardSnapshot.AYO) {
+            hash ^= AYO_KEY;
+        }
+        return hash;
+    }
+
     /**
      * Set the current player.
      *
@@ -78,25 +166,27 @@ public abstract class GameRules implements Serializable{
      * @return True if the side is empty, false otherwise.
      */
     /* default */ boolean isSideEmpty(final int pitNum) {
-        boolean empty = false;
-        if (pitNum >= 1 && pitNum <= 6){
-            empty = true;
-            for (int i = 1; i <= 6; i++){
-                if (gameBoard.getNumStones(i) != 0) {
-                    empty = false;
-                    break;
-                }
-            }
-        } else if (pitNum >= 7 && pitNum < 13) {
-            empty = true;
-            for (int i = 7; i < 13; i++){
-                if (gameBoard.getNumStones(i) != 0) {
-                    empty = false;
-                    break;
-                }
-            }
-        }
-        return empty;
+        final int side = gameBoard.getGeometry().getSide(pitNum);
+        return side != 0 && !gameBoard.hasStones(side);
+    }
+
+    /**
+     * Gets the number of stones left in a player's pits, kept as a running total by the board.
+     *
+     * @param playerNum The player number (1 or 2).
+     * @return The stone count on the player's side.
+     */
+    /* default */ int getSideCount(final int playerNum) {
+        return gameBoard.getSideCount(playerNum);
+    }
+
+    /**
+     * Check if either side is empty, which ends the game.
+     *
+     * @return True if one of the players has no stones left in their pits.
+     */
+    /* default */ boolean isGameOver() {
+        return !gameBoard.hasStones(PLAYER_1) || !gameBoard.hasStones(PLAYER_2);
     }
 
     /**
@@ -106,10 +196,7 @@ public abstract class GameRules implements Serializable{
      * @return Whether or not the move was valid
      */
     /* default */ boolean isValidMove(final int pitNum) {
-        boolean validMove;
-        validMove = (pitNum >= 1 && pitNum <= PLAYER_1_STORE && getCurrentPlayer() == PLAYER_1) ||
-            (pitNum > PLAYER_1_STORE && pitNum < PLAYER_2_STORE && getCurrentPlayer() == PLAYER_2);
-        return validMove;
+        return gameBoard.getGeometry().getSide(pitNum) == getCurrentPlayer();
     }
 
      /**
@@ -127,6 +214,39 @@ public abstract class GameRules implements Serializable{
         return captureStones;
     }
 
+    /**
+     * Determines if a pit can be played by the current player
+     *
+     * @param pitNum The pit chosen for a given move
+     * @return Whether the pit is on the current player's side and holds stones
+     */
+    public boolean isLegalMove(final int pitNum) {
+        return isValidMove(pitNum) && gameBoard.getNumStones(pitNum) > 0;
+    }
+
+    /**
+     * Gets the pits the current player can play as a bitmask, where bit n is set
+     * when pit n is on the current player's side and holds stones.
+     *
+     * @return The bitmask of legal pits, 0 if the current player cannot move
+     */
+    public int getLegalMoves() {
+        return gameBoard.getFilledPits(currentPlayer);
+    }
+
+    /**
+     * Perform a move for the current player without throwing when it is not legal.
+     *
+     * @param startPit The starting pit for the move.
+     * @return The number of stones added to the player's store, or -1 if the move is not legal.
+     */
+    public int tryMove(final int startPit) {
+        if (!isLegalMove(startPit)) {
+            return -1;
+        }
+        return applyMove(startPit);
+    }
+
     /**
      * Perform a move and return the number of stones added to the player's store.
      *
@@ -135,7 +255,97 @@ public abstract class GameRules implements Serializable{
      * @return The number of stones added to the player's store.
      * @throws InvalidMoveException If the move is invalid.
      */
-    public abstract int moveStones(int startPit, int playerNum) throws InvalidMoveException;
+    public int moveStones(final int startPit, final int playerNum) throws InvalidMoveException {
+        if (!isValidMove(startPit) || playerNum != getCurrentPlayer()) {
+            throw new InvalidMoveException("Must choose pit on your side");
+        }
+        if (gameBoard.getNumStones(startPit) == 0) {
+            throw new InvalidMoveException("Cannot chose empty pit");
+        }
+        if (before == null) {
+            before = new int[gameBoard.getStateSize()];
+        }
+        gameBoard.saveState(before, 0);
+        captured = 0;
+        final int gained = applyMove(startPit);
+        lastCaptured = captured;
+        lastPit = startPit;
+        lastMover = playerNum;
+        afterHash = getPositionHash();
+        lastChange = null;
+        return gained;
+    }
+
+    /**
+     * Gets the changes made by the last move played through moveStones, so a view of the
+     * board can be updated without reading every pit. The changes are worked out the first
+     * time they are asked for, so moves nobody watches allocate nothing. Moves made while
+     * searching ahead with tryMove or makeMove do not replace them.
+     *
+     * @return The changes made by the last move, or null if no move has been made or the
+     *         board was changed some other way before the changes were first asked for
+     */
+    public MoveDelta getLastChange() {
+        if (lastChange == null && lastPit != 0 && getPositionHash() == afterHash) {
+            lastChange = MoveDelta.of(this, lastPit, lastMover, before, lastCaptured);
+        }
+        return lastChange;
+    }
+
+    /**
+     * Records the stones captured by the move being applied. Only moveStones keeps the
+     * count for its MoveDelta, so captures made while searching ahead are never reported.
+     *
+     * @param stones The number of stones added to the player's store by the capture.
+     */
+    /* default */ void recordCapture(final int stones) {
+        captured = stones;
+    }
+
+    /**
+     * Perform a legal move for the current player and return the number of stones added to their store.
+     *
+     * @param startPit The starting pit for the move.
+     * @return The number of stones added to the player's store.
+     */
+    /* default */ abstract int applyMove(int startPit);
+
+    /**
+     * Performs a move for the current player that can later be taken back with unmakeMove.
+     * The board, stores, current player and iterator are pushed onto an undo stack kept by
+     * these rules, so searching ahead in place allocates nothing once the stack has grown.
+     *
+     * @param startPit The starting pit for the move.
+     * @return The number of stones added to the player's store, or -1 if the move is not legal.
+     */
+    public int makeMove(final int startPit) {
+        if (!isLegalMove(startPit)) {
+            return -1;
+        }
+        if (undoStack == null) {
+            undoFrame = gameBoard.getStateSize() + 1;
+            undoStack = new int[undoFrame * 16];
+        } else if (undoDepth + undoFrame > undoStack.length) {
+            undoStack = Arrays.copyOf(undoStack, undoStack.length * 2);
+        }
+        gameBoard.saveState(undoStack, undoDepth);
+        undoStack[undoDepth + undoFrame - 1] = currentPlayer;
+        undoDepth += undoFrame;
+        return applyMove(startPit);
+    }
+
+    /**
+     * Takes back the last move made with makeMove, restoring the board, stores,
+     * current player and any captures or bonus turn exactly as they were.
+     */
+    public void unmakeMove() {
+        if (undoDepth == 0) {
+            throw new IllegalStateException("No move to take back");
+        }
+        undoDepth -= undoFrame;
+        gameBoard.restoreState(undoStack, undoDepth);
+        currentPlayer = undoStack[undoDepth + undoFrame - 1];
+    }
 
     /**
      * Distribute stones from a pit and return the number distributed.
@@ -195,10 +405,11 @@ public abstract class GameRules implements Serializable{
      */
     public void clearBoard() {
         final MancalaDataStructure structure = getDataStructure();
-        for (int i = 1; i <= 6; i++) {
+        final int side = structure.getGeometry().getPitsPerSide();
+        for (int i = 1; i <= side; i++) {
             structure.addToStore(1, structure.removeStones(i));
         }
-        for (int i = 7; i < 13 ; i++) {
+        for (int i = side + 1; i <= 2 * side; i++) {
             structure.addToStore(2, structure.removeStones(i));
         }
     }
@@ -210,11 +421,7 @@ public abstract class GameRules implements Serializable{
      * @return the board index
      */
     /* default */ int pitPos(int index) {
-        int pit = index;
-        if (pit < 6) {
-            pit += 1;
-        }
-        return pit; 
+        return gameBoard.getGeometry().getPitNumber(index);
     }
 
     /**
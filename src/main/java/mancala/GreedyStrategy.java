@@ -0,0 +1,45 @@
+package mancala;
+
+/**
+ * A strategy that plays the pit gaining the most stones this turn,
+ * preferring a bonus turn when gains are equal
+ *
+ * @see ComputerPlayer
+ */
+public class GreedyStrategy implements MoveStrategy {
+
+    /**
+     * Tries every legal pit with makeMove and unmakeMove on a copy of the rules and keeps the best
+     *
+     * @param game The game rules holding the position, which are not changed
+     * @return The pit to play
+     */
+    @Override
+    public int chooseMove(final GameRules game) {
+        final int legal = game.getLegalMoves();
+        if (legal == 0) {
+            throw new IllegalStateException("No legal moves");
+        }
+        // makeMove and unmakeMove leave the rules as they were found, but a copy also keeps
+        // the moves being tried out of sight of anything reading the game in the meantime
+        final GameRules rules = game.copy();
+        final int player = rules.getCurrentPlayer();
+        int bestPit = 0;
+        int bestScore = Integer.MIN_VALUE;
+        for (int pit = rules.getGeometry().getPitCount(); pit >= 1; pit--) { // pits nearer the store win ties
+            if ((legal & 1 << pit) == 0) {
+                continue;
+            }
+            int score = rules.makeMove(pit) * 2;
+            if (rules.getCurrentPlayer() == player) {
+                score++;
+            }
+            rules.unmakeMove();
+            if (score > bestScore) {
+                bestScore = score;
+                bestPit = pit;
+            }
+        }
+        return bestPit;
+    }
+}
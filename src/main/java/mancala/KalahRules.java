@@ -8,34 +8,70 @@ package mancala;
 public class KalahRules extends GameRules {
     private static final long serialVersionUID = 1887193766321851712L;
 
-    transient private final static int PLAYER_1 = 1;
-    transient private final static int PLAYER_2 = 2;
-    transient private final static int PLAYER_1_STORE = 6;
-    transient private final static int PLAYER_2_STORE = 13;
+    /**
+     * Creates a KalahRules object
+     */
+    public KalahRules() {
+        super();
+    }
+
+    /**
+     * Creates a KalahRules object with a chosen board backend
+     *
+     * @param packedBoard Whether the board should be held in a packed int array
+     */
+    public KalahRules(final boolean packedBoard) {
+        super(packedBoard);
+    }
 
     /**
-     * Perform a move and return the number of stones added to the player's store.
+     * Creates a KalahRules object on a board of any size
+     *
+     * @param geometry    The number of pits on each side and starting stones
+     * @param packedBoard Whether the board should be held in a packed int array
+     */
+    public KalahRules(final BoardGeometry geometry, final boolean packedBoard) {
+        super(geometry, packedBoard);
+    }
+
+    /**
+     * Creates a new KalahRules object with the same geometry on a packed board
+     *
+     * @return The new rules
+     */
+    @Override
+    /* default */ GameRules newRules() {
+        return new KalahRules(getGeometry(), true);
+    }
+
+    /**
+     * Gets the rule variant, which is Kalah for these rules and any rules built on them
+     *
+     * @return BoardSnapshot.KALAH
+     */
+    @Override
+    public int getVariant() {
+        return BoardSnapshot.KALAH;
+    }
+
+    /**
+     * Perform a legal move for the current player and return the number of stones added to their store.
      *
      * @param startPit  The starting pit for the move.
-     * @param playerNum The player making the move.
      * @return The number of stones added to the player's store.
-     * @throws InvalidMoveException If the move is invalid.
      */
     @Override
-    public int moveStones(final int startPit, final int playerNum) throws InvalidMoveException {
-        if (!isValidMove(startPit) || playerNum != getCurrentPlayer()) {
-            throw new InvalidMoveException("Must choose pit on your side");
-        }
+    /* default */ int applyMove(final int startPit) {
+        final int playerNum = getCurrentPlayer();
         final int playerStones = getStoreCount(playerNum);
-        if (distributeStones(startPit) == 0) {
-            throw new InvalidMoveException("Cannot chose empty pit");
-        }
+        distributeStones(startPit);
         final MancalaDataStructure structure = getDataStructure();
         int currentPit = structure.getIteratorPos();
         if (shouldCaptureStones(pitPos(currentPit))) {
             int stolenStones;
             stolenStones = captureStones(pitPos(currentPit));
             structure.addToStore(playerNum, stolenStones);
+            recordCapture(stolenStones);
         }
         if (!getsBonusTurn(currentPit)) {
             switchPlayers();
@@ -52,14 +88,10 @@ public class KalahRules extends GameRules {
     @Override
     public int distributeStones(final int startPit) {
         int stones;
-        Countable current;
         final MancalaDataStructure structure = getDataStructure();
         structure.setIterator(startPit, getCurrentPlayer(), false);
         stones = structure.removeStones(startPit);
-        for (int i = 0; i < stones; i++) {
-            current = structure.next();
-            current.addStone();
-        }
+        structure.sow(stones);
         return stones;
     }
 
@@ -73,7 +105,7 @@ public class KalahRules extends GameRules {
     /* default */ int captureStones(final int stoppingPoint) {
         int stolenStones;
         final MancalaDataStructure structure = getDataStructure();
-        stolenStones = structure.removeStones(12 - (stoppingPoint-1));
+        stolenStones = structure.removeStones(getGeometry().getOppositePit(stoppingPoint));
         stolenStones += structure.removeStones(stoppingPoint);
         return stolenStones;
     }
@@ -85,11 +117,6 @@ public class KalahRules extends GameRules {
      * @return If the conditions for the second turn rule have been met
      */
     /* default */ boolean getsBonusTurn(final int stoppingPoint) {
-        boolean bonusTurn = false;
-        if ((stoppingPoint == PLAYER_1_STORE && getCurrentPlayer() == PLAYER_1) ||
-            (stoppingPoint == PLAYER_2_STORE && getCurrentPlayer() == PLAYER_2)) {
-            bonusTurn = true;
-        }
-        return bonusTurn;
+        return stoppingPoint == getGeometry().getStoreIndex(getCurrentPlayer());
     }
 }
\ No newline at end of file
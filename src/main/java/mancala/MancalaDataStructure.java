@@ -3,6 +3,8 @@ package mancala;
 import java.util.ArrayList;
 import java.util.List;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
 
 /**
@@ -10,18 +12,42 @@ import java.io.Serializable;
  * Do not change the signature of any of the methods provided.
  * You may add methods if you need them.
  * Do not add game logic to this class
+ *
+ * The board can be held either as a list of Pit and Store objects or, for simulations,
+ * packed into a single int array. The backend is chosen when the structure is constructed
+ * and defaults to the list unless the mancala.packedBoard system property is set.
+ *
+ * The number of pits on each side and the starting stones come from a BoardGeometry,
+ * which also holds the position of every pit number.
+ *
+ * A 64 bit Zobrist style hash of the stone counts is kept up to date as the board changes.
+ * Stones must be moved through this class, including the Countable returned by next(),
+ * for the hash to stay correct.
  */
 public class MancalaDataStructure implements Serializable {
     private static final long serialVersionUID = -3106129093204979047L;
 
-    transient private final int PLAYER_ONE = 6;
-    transient private final int PLAYER_TWO = 13;
-    transient private  int START_STONES = 4;  //not final because we might want a different size board in the future
+    transient private int PLAYER_ONE;  // store positions, set from the geometry
+    transient private int PLAYER_TWO;
+    transient private int PIT_COUNT;
+    transient private int[] pitIndex;
+    transient private int[] nextForOne; // the geometry's next hole tables for each player
+    transient private int[] nextForTwo;
+    transient private int[] sideOf;     // the player owning each position, 0 for the stores
+    transient private int[] sideStones; // running total of each player's pits, indexed like sideOf
+    transient private static final boolean DEFAULT_PACKED = Boolean.getBoolean("mancala.packedBoard");
 
     private List<Countable> data = new ArrayList<>();
     private int iteratorPos = 0;
-    private int playerSkip = PLAYER_TWO;
+    private int playerSkip;
     private int pitSkip = -1; // will never match the iteratorPos unless set specifically
+    private BoardGeometry geometry; // null in boards saved before boards had a geometry
+
+    private boolean packed;
+    private int[] holes;        // stone counts for the packed backend, indexed like data
+    private Countable[] stores; // stores registered with the packed backend, kept in sync with holes
+    transient private Countable cursor;
+    transient private long hash;
 
     
     /**
@@ -30,15 +56,63 @@ public class MancalaDataStructure implements Serializable {
      * @param startStones The number of stones to place in pits at the start of the game. Default values is 4.
      */
     public MancalaDataStructure(int startStones){
-        START_STONES = startStones;
-        for (int i = 0; i < PLAYER_ONE; i++) {
-            data.add(new Pit());
+        this(startStones, DEFAULT_PACKED);
+    }
+
+    /**
+     * Constructor to initialize the MancalaDataStructure.
+     * 
+     * @param startStones The number of stones to place in pits at the start of the game.
+     * @param packedBoard Whether to hold the board in a single int array instead of Pit and Store objects.
+     */
+    public MancalaDataStructure(int startStones, boolean packedBoard){
+        this(BoardGeometry.of(BoardGeometry.STANDARD.getPitsPerSide(), startStones), packedBoard);
+    }
+
+    /**
+     * Constructor to initialize the MancalaDataStructure.
+     * 
+     * @param boardGeometry The number of pits on each side and starting stones.
+     * @param packedBoard   Whether to hold the board in a single int array instead of Pit and Store objects.
+     */
+    public MancalaDataStructure(BoardGeometry boardGeometry, boolean packedBoard){
+        geometry = boardGeometry;
+        setPositions();
+        playerSkip = PLAYER_TWO;
+        packed = packedBoard;
+        if (packed) {
+            holes = new int[PLAYER_TWO + 1];
+            stores = new Countable[2];
+        } else {
+            for (int i = 0; i < PLAYER_ONE; i++) {
+                data.add(new Pit());
+            }
+            data.add(new Store());
+            for (int i = PLAYER_ONE + 1; i < PLAYER_TWO; i++) {
+                data.add(new Pit());
+            }
+            data.add(new Store());
         }
-        data.add(new Store());
-        for (int i = 7; i < PLAYER_TWO; i++) {
-            data.add(new Pit());
+        hash = computeHash();
+        recountSides();
+    }
+
+    /*helper method that copies the positions used on every move out of the geometry*/
+    private void setPositions() {
+        PLAYER_ONE = geometry.getStoreIndex(1);
+        PLAYER_TWO = geometry.getStoreIndex(2);
+        PIT_COUNT = geometry.getPitCount();
+        pitIndex = new int[PIT_COUNT + 1];
+        for (int pit = 1; pit <= PIT_COUNT; pit++) {
+            pitIndex[pit] = geometry.getPitIndex(pit);
         }
-        data.add(new Store());
+        nextForOne = geometry.getNextHoles(1);
+        nextForTwo = geometry.getNextHoles(2);
+        sideOf = new int[PLAYER_TWO + 1];
+        for (int pos = 0; pos < PLAYER_TWO; pos++) {
+            sideOf[pos] = pos < PLAYER_ONE ? 1 : (pos > PLAYER_ONE ? 2 : 0);
+        }
+        sideStones = new int[3];
     }
 
 
@@ -57,9 +131,9 @@ public class MancalaDataStructure implements Serializable {
      * @return The current number of stones in the pit.
      */
     public int addStones(int pitNum, int numToAdd) {
-        Countable pit = data.get(pitPos(pitNum));
-        pit.addStones(numToAdd);
-        return pit.getStoneCount();
+        final int pos = pitPos(pitNum);
+        add(pos, numToAdd);
+        return count(pos);
     }
 
     /**
@@ -69,8 +143,7 @@ public class MancalaDataStructure implements Serializable {
      * @return The number of stones removed.
      */
     public int removeStones(int pitNum) {
-        Countable pit = data.get(pitPos(pitNum));
-        return pit.removeStones();
+        return remove(pitPos(pitNum));
     }
 
     /**
@@ -81,9 +154,9 @@ public class MancalaDataStructure implements Serializable {
      * @return The current number of stones in the store.
      */
     public int addToStore(int playerNum, int numToAdd) {
-        Countable store = data.get(storePos(playerNum));
-        store.addStones(numToAdd);
-        return store.getStoneCount();
+        final int pos = storePos(playerNum);
+        add(pos, numToAdd);
+        return count(pos);
     }
 
     /**
@@ -93,8 +166,7 @@ public class MancalaDataStructure implements Serializable {
      * @return The stone count in the player's store.
      */
     public int getStoreCount(int playerNum) {
-        Countable store = data.get(storePos(playerNum));
-        return store.getStoneCount();
+        return count(storePos(playerNum));
     }
 
     /**
@@ -113,23 +185,245 @@ public class MancalaDataStructure implements Serializable {
      * @return The stone count in the pit.
      */
     public int getNumStones(int pitNum) {
-        Countable pit = data.get(pitPos(pitNum));
-        return pit.getStoneCount();
+        return count(pitPos(pitNum));
     }    
 
+    /**
+     * Gets which backend boards use when none is chosen, set by the mancala.packedBoard system property
+     * 
+     * @return Whether boards are packed by default
+     */
+    /* default */ static boolean isPackedByDefault() {
+        return DEFAULT_PACKED;
+    }
+
+    /**
+     * Gets the number of pits on each side and starting stones of the board
+     * 
+     * @return The geometry of the board
+     */
+    public BoardGeometry getGeometry() {
+        return geometry;
+    }
+
+    /**
+     * Gets whether the board is held in the packed int array backend
+     * 
+     * @return True if the packed backend is in use
+     */
+    public boolean isPacked() {
+        return packed;
+    }
+
+    /**
+     * Gets whether the iterator currently sits on a store
+     * 
+     * @return True if the iterator is on either player's store
+     */
+    public boolean isIteratorOnStore() {
+        return iteratorPos == PLAYER_ONE || iteratorPos == PLAYER_TWO;
+    }
+
+    /**
+     * Gets which of a player's pits hold stones, reading the board directly rather than by pit number
+     * 
+     * @param playerNum The player number (1 or 2)
+     * @return A bitmask where bit n is set when pit n holds stones
+     */
+    /* default */ int getFilledPits(int playerNum) {
+        final int first = playerNum == 2 ? PLAYER_ONE + 1 : 0;
+        final int shift = playerNum == 2 ? 0 : 1; // player 1's pit numbers are one past their positions
+        int pits = 0;
+        for (int pos = first; pos < first + PLAYER_ONE; pos++) {
+            if (count(pos) != 0) {
+                pits |= 1 << (pos + shift);
+            }
+        }
+        return pits;
+    }
+
+    /**
+     * Gets whether any of a player's pits hold stones
+     * 
+     * @param playerNum The player number (1 or 2)
+     * @return True if the player has stones left in their pits
+     */
+    /* default */ boolean hasStones(int playerNum) {
+        return sideStones[playerNum] != 0;
+    }
+
+    /**
+     * Gets the number of stones in all of a player's pits, not counting their store.
+     * The totals are kept up to date as stones move, so no pits are read.
+     * 
+     * @param playerNum The player number (1 or 2).
+     * @return The stone count on the player's side of the board.
+     */
+    public int getSideCount(int playerNum) {
+        if (playerNum < 1 || playerNum > 2) {
+            throw new RuntimeException("Invalid Player Position");
+        }
+        return sideStones[playerNum];
+    }
+
+    /*helper methods that read and write a hole by array position for either backend*/
+    private int count(int pos) {
+        if (packed) {
+            return holes[pos];
+        }
+        return data.get(pos).getStoneCount();
+    }
+
+    private void add(int pos, int numToAdd) {
+        final int oldCount = count(pos);
+        rehash(pos, oldCount, oldCount + numToAdd);
+        sideStones[sideOf[pos]] += numToAdd; // the stores all land in the unused slot 0
+        if (packed) {
+            holes[pos] += numToAdd;
+            if (pos == PLAYER_ONE || pos == PLAYER_TWO) {
+                syncStore(pos, numToAdd);
+            }
+        } else {
+            data.get(pos).addStones(numToAdd);
+        }
+    }
+
+    private int remove(int pos) {
+        final int stones = count(pos);
+        add(pos, -stones);
+        return stones;
+    }
+
+    /**
+     * Gets how many values saveState copies: every position, the iterator state, the hash and the side totals
+     * 
+     * @return The size of a saved state
+     */
+    /* default */ int getStateSize() {
+        return PLAYER_TWO + 8;
+    }
+
+    /**
+     * Copies the stone counts, iterator state and hash into an array
+     * 
+     * @param dest   The array to copy into, with room for getStateSize() values
+     * @param offset The index to start copying at
+     */
+    /* default */ void saveState(int[] dest, int offset) {
+        if (packed) {
+            System.arraycopy(holes, 0, dest, offset, PLAYER_TWO + 1);
+        } else {
+            for (int pos = 0; pos <= PLAYER_TWO; pos++) {
+                dest[offset + pos] = count(pos);
+            }
+        }
+        final int extra = offset + PLAYER_TWO + 1;
+        dest[extra] = iteratorPos;
+        dest[extra + 1] = playerSkip;
+        dest[extra + 2] = pitSkip;
+        dest[extra + 3] = (int) (hash >>> 32);
+        dest[extra + 4] = (int) hash;
+        dest[extra + 5] = sideStones[1];
+        dest[extra + 6] = sideStones[2];
+    }
+
+    /**
+     * Puts back the state copied by saveState from this board or another of the same geometry.
+     * The saved hash and side totals are put back as well, so nothing is rehashed or recounted.
+     * 
+     * @param src    The array holding the saved state
+     * @param offset The index the state starts at
+     */
+    /* default */ void restoreState(int[] src, int offset) {
+        if (packed) {
+            syncStore(PLAYER_ONE, src[offset + PLAYER_ONE] - holes[PLAYER_ONE]);
+            syncStore(PLAYER_TWO, src[offset + PLAYER_TWO] - holes[PLAYER_TWO]);
+            System.arraycopy(src, offset, holes, 0, PLAYER_TWO + 1);
+        } else {
+            for (int pos = 0; pos <= PLAYER_TWO; pos++) {
+                final int change = src[offset + pos] - count(pos);
+                if (change != 0) {
+                    data.get(pos).addStones(change);
+                }
+            }
+        }
+        final int extra = offset + PLAYER_TWO + 1;
+        iteratorPos = src[extra];
+        playerSkip = src[extra + 1];
+        pitSkip = src[extra + 2];
+        hash = (long) src[extra + 3] << 32 | src[extra + 4] & 0xFFFFFFFFL;
+        sideStones[1] = src[extra + 5];
+        sideStones[2] = src[extra + 6];
+    }
+
+    /**
+     * Gets the hash of the stone counts on the board, kept up to date as stones move
+     * 
+     * @return The 64 bit hash of the board
+     */
+    public long getHash() {
+        return hash;
+    }
+
+    /*helper method that hashes the whole board from scratch*/
+    /* default */ long computeHash() {
+        long fullHash = 0;
+        for (int pos = 0; pos <= PLAYER_TWO; pos++) {
+            fullHash ^= zobristKey(pos, count(pos));
+        }
+        return fullHash;
+    }
+
+    /*helper method that adds up both sides from scratch*/
+    /* default */ void recountSides() {
+        sideStones[1] = 0;
+        sideStones[2] = 0;
+        for (int pos = 0; pos <= PLAYER_TWO; pos++) {
+            sideStones[sideOf[pos]] += count(pos);
+        }
+        sideStones[0] = 0;
+    }
+
+    /*helper method for swapping a position's old count out of the hash and its new count in*/
+    private void rehash(int pos, int oldCount, int newCount) {
+        hash ^= zobristKey(pos, oldCount) ^ zobristKey(pos, newCount);
+    }
+
+    /*the key for a position holding a count, mixed on the fly so counts are unbounded*/
+    private static long zobristKey(int pos, int count) {
+        long key = ((long) pos << 32 | count & 0xFFFFFFFFL) + 0x9E3779B97F4A7C15L;
+        key = (key ^ key >>> 30) * 0xBF58476D1CE4E5B9L;
+        key = (key ^ key >>> 27) * 0x94D049BB133111EBL;
+        return key ^ key >>> 31;
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        if (geometry == null) {
+            geometry = BoardGeometry.STANDARD;
+        }
+        setPositions();
+        hash = computeHash();
+        recountSides();
+    }
+
+    /*keeps a store registered with the packed backend in step with its count*/
+    private void syncStore(int pos, int numToAdd) {
+        final Countable store = stores[pos == PLAYER_ONE ? 0 : 1];
+        if (store != null && numToAdd != 0) {
+            store.addStones(numToAdd);
+        }
+    }
+
     /*helper method to convert 1 based pit numbers into array positions*/
     private int pitPos(int pitNum) {
         /*Runtime execeptions don't need to be declared and are
         automatically passed up the chain until caught. This can
         replace the PitNotFoundException*/
-        if(pitNum<1 || pitNum > 12){
+        if(pitNum<1 || pitNum > PIT_COUNT){
             throw new RuntimeException("Pit Number Out of Range");
         }
-        int pos = pitNum;
-        if (pos <= PLAYER_ONE) {
-            pos--;
-        }
-        return pos;
+        return pitIndex[pitNum];
     }
 
     /*helper method to convert player number to an array position*/
@@ -149,6 +443,15 @@ public class MancalaDataStructure implements Serializable {
      * Empties both players' stores.
      */
     public void emptyStores() {
+        rehash(PLAYER_ONE, count(PLAYER_ONE), 0);
+        rehash(PLAYER_TWO, count(PLAYER_TWO), 0);
+        if (packed) {
+            stores[0] = null;
+            stores[1] = null;
+            holes[PLAYER_ONE] = 0;
+            holes[PLAYER_TWO] = 0;
+            return;
+        }
         data.set(storePos(1), new Store());
         data.set(storePos(2), new Store());
     }
@@ -160,13 +463,13 @@ public class MancalaDataStructure implements Serializable {
      */
     public void setUpPits() {
         for (int i = 0; i < PLAYER_ONE; i++) {
-            data.get(i).removeStones();
-            data.get(i).addStones(START_STONES);
+            remove(i);
+            add(i, geometry.getStartStones());
         }
 
-        for (int i = 7; i < PLAYER_TWO; i++) {
-            data.get(i).removeStones();
-            data.get(i).addStones(START_STONES);
+        for (int i = PLAYER_ONE + 1; i < PLAYER_TWO; i++) {
+            remove(i);
+            add(i, geometry.getStartStones());
         }
     }
 
@@ -177,22 +480,15 @@ public class MancalaDataStructure implements Serializable {
      * @param playerNum The player number (1 or 2).
      */
     public void setStore(Countable store, int playerNum) {
-        data.set(storePos(playerNum), store);
-    }
-    /*helper method for wrapping the iterator around to the beginning again*/
-    private void loopIterator() {
-        if (iteratorPos == PLAYER_TWO + 1) {
-            iteratorPos = 0;
+        final int pos = storePos(playerNum);
+        rehash(pos, count(pos), store.getStoneCount());
+        if (packed) {
+            stores[playerNum - 1] = store;
+            holes[pos] = store.getStoneCount();
+            return;
         }
+        data.set(pos, store);
     }
-
-    private void skipPosition() {
-        while (iteratorPos == playerSkip || iteratorPos == pitSkip) {
-            iteratorPos++;
-            loopIterator();
-        }
-    }
-
     private void setSkipPlayer(int playerNum) {
         //sets the skip store to be the opposite player
         playerSkip = PLAYER_TWO;
@@ -222,28 +518,104 @@ public class MancalaDataStructure implements Serializable {
 
     /**
      * Moves the iterator to the next position.
+     * The returned Countable is a view of whichever position the iterator is on,
+     * so changes made through it are tracked by the board.
      *
      * @return The countable object at the next position.
      */
     public Countable next() {
-        iteratorPos++;
-        loopIterator(); // in case we've run off the end
-        skipPosition(); // skip store and start position if necessary
-        return data.get(iteratorPos);
+        advance();
+        return getCursor();
+    }
+
+    /**
+     * Sows stones one at a time into the positions after the iterator, skipping the same
+     * positions next() would, and leaves the iterator on the last position sown into.
+     * Full laps of the board are added in a single pass rather than stone by stone.
+     *
+     * @param numStones The number of stones to sow.
+     * @return The stone count of the last position sown into.
+     */
+    public int sow(int numStones) {
+        if (numStones <= 0) {
+            return count(iteratorPos);
+        }
+        final int lapLength = getLapLength();
+        final int laps = (numStones - 1) / lapLength; // always leave at least one stone for the walk
+        if (laps > 0) {
+            for (int pos = 0; pos <= PLAYER_TWO; pos++) {
+                if (pos != playerSkip && pos != pitSkip) {
+                    add(pos, laps);
+                }
+            }
+        }
+        for (int i = laps * lapLength; i < numStones; i++) {
+            advance();
+            add(iteratorPos, 1);
+        }
+        return count(iteratorPos);
+    }
+
+    /*helper method for counting the positions the iterator visits in one lap of the board*/
+    private int getLapLength() {
+        int length = PLAYER_TWO; // every position except the skipped store
+        if (pitSkip >= 0) {
+            length--;
+        }
+        return length;
+    }
+
+    /*helper method for moving the iterator to the next position, the table wraps
+    around the board and skips the opponent's store so only the start pit is checked*/
+    private void advance() {
+        final int[] next = playerSkip == PLAYER_TWO ? nextForOne : nextForTwo;
+        iteratorPos = next[iteratorPos];
+        if (iteratorPos == pitSkip) {
+            iteratorPos = next[iteratorPos];
+        }
+    }
+
+    /*next() hands out a view of the hole under the iterator so every change goes through add()*/
+    private Countable getCursor() {
+        if (cursor == null) {
+            cursor = new Countable() {
+                @Override
+                public int getStoneCount() {
+                    return count(iteratorPos);
+                }
+
+                @Override
+                public void addStone() {
+                    add(iteratorPos, 1);
+                }
+
+                @Override
+                public void addStones(int numToAdd) {
+                    add(iteratorPos, numToAdd);
+                }
+
+                @Override
+                public int removeStones() {
+                    return remove(iteratorPos);
+                }
+            };
+        }
+        return cursor;
     }
 
     @Override
     public String toString() {
         final StringBuilder string = new StringBuilder();
 
-        for (int i = 12; i > PLAYER_ONE; i--){
-            string.append(String.format("[%2s]",data.get(i).toString()));
+        for (int i = PLAYER_TWO - 1; i > PLAYER_ONE; i--){
+            string.append(String.format("[%2s]",count(i)));
         }
         string.append("\n");
-        string.append(String.format("[%2s]                [%2s]", data.get(PLAYER_TWO).toString(), data.get(PLAYER_ONE).toString()));
+        final String middle = " ".repeat(Math.max(0, 4 * PLAYER_ONE - 8)); // as wide as the pits between the stores
+        string.append(String.format("[%2s]" + middle + "[%2s]", count(PLAYER_TWO), count(PLAYER_ONE)));
         string.append("\n");
         for (int i = 0; i < PLAYER_ONE; i++){
-            string.append(String.format("[%2s]",data.get(i).toString()));
+            string.append(String.format("[%2s]",count(i)));
         }
         string.append("\n");
         return string.toString(); 
@@ -1,7 +1,10 @@
 package mancala;
 
+import java.io.IOException;
 import java.io.Serializable;
+import java.io.UncheckedIOException;
 
+import java.util.Arrays;
 import java.util.List;
 import java.util.ArrayList;
 
@@ -22,6 +25,9 @@ public class MancalaGame implements Serializable {
 
     private Player player1;
     private Player player2;
+    transient private MoveJournal journal;
+    transient private volatile GameListener[] listeners; // null when nobody listens, replaced rather than changed
+    transient private boolean resultAnnounced;
 
     /**
      * Create new MancalaGame object
@@ -69,6 +75,7 @@ public class MancalaGame implements Serializable {
         player1 = onePlayer;
         player2 = twoPlayer;
         gameBoard.setCurrentPlayer(1);
+        resultAnnounced = false;
     }
 
     public void replacePlayer(final Player player, final int oldPlayer) {
@@ -184,20 +191,160 @@ public class MancalaGame implements Serializable {
     }
 
     /**
-     * Distributes the stones from chosen pit
+     * Distributes the stones from chosen pit, recording the move in the journal if the game has one
+     * and telling any listeners about it
      * 
      * @param startPit The pit where the stones will be taken from
      * @return The number of Stones remaining on the players side
+     * @throws UncheckedIOException If the move was made but could not be journaled
      */
     public int move(final int startPit) throws InvalidMoveException {
         try {   
-            gameBoard.moveStones(startPit, gameBoard.getCurrentPlayer());
+            final int player = gameBoard.getCurrentPlayer();
+            gameBoard.moveStones(startPit, player);
+            if (journal != null) {
+                journal.append(this, startPit, player);
+            }
+            final GameListener[] current = listeners;
+            if (current != null) {
+                publishMove(current, player);
+            }
             return getNumStonesOnSide(startPit);
+        } catch (IOException err) {
+            throw new UncheckedIOException(err);
         } catch (PitNotFoundException err) {
             throw new InvalidMoveException(err.getMessage());
         }
     }
 
+    /**
+     * Gets the changes made by the last move, for updating a view of the board one pit at a time
+     * 
+     * @return The changes made by the last move, or null if no move has been made
+     * @see GameRules#getLastChange()
+     */
+    public MoveDelta getLastChange() {
+        return gameBoard.getLastChange();
+    }
+
+    /*tells each listener about the move just made by a player, then about what the move led to*/
+    private void publishMove(final GameListener[] current, final int player) {
+        final MoveDelta change = gameBoard.getLastChange();
+        final boolean over = isGameOver();
+        for (final GameListener listener : current) {
+            listener.moveApplied(this, change);
+        }
+        if (change.getCaptured() > 0) {
+            for (final GameListener listener : current) {
+                listener.stonesCaptured(this, player, change.getCaptured());
+            }
+        }
+        if (change.isBonusTurn() && !over) {
+            for (final GameListener listener : current) {
+                listener.bonusTurn(this, player);
+            }
+        }
+        if (over) {
+            for (final GameListener listener : current) {
+                listener.gameOver(this);
+            }
+        }
+    }
+
+    /**
+     * Adds a listener to be told about moves and the end of the game. While no listeners
+     * are added, moves do no extra work and allocate nothing for them.
+     * 
+     * @param listener The listener to add
+     */
+    public synchronized void addGameListener(final GameListener listener) {
+        final GameListener[] current = listeners;
+        if (current == null) {
+            listeners = new GameListener[] {listener};
+        } else {
+            final GameListener[] added = Arrays.copyOf(current, current.length + 1);
+            added[current.length] = listener;
+            listeners = added;
+        }
+    }
+
+    /**
+     * Removes a listener added with addGameListener
+     * 
+     * @param listener The listener to remove
+     * @return Whether the listener had been added
+     */
+    public synchronized boolean removeGameListener(final GameListener listener) {
+        final GameListener[] current = listeners;
+        if (current == null) {
+            return false;
+        }
+        for (int i = 0; i < current.length; i++) {
+            if (current[i] == listener) {
+                final GameListener[] removed = new GameListener[current.length - 1];
+                System.arraycopy(current, 0, removed, 0, i);
+                System.arraycopy(current, i + 1, removed, i, removed.length - i);
+                listeners = removed.length == 0 ? null : removed;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Lets the current player choose and play its own move if it is a computer player
+     * 
+     * @return The number of Stones remaining on the players side
+     * @throws InvalidMoveException If the current player is not a computer player
+     */
+    public int moveComputerPlayer() throws InvalidMoveException {
+        final Player player = getCurrentPlayer();
+        if (!(player instanceof ComputerPlayer)) {
+            throw new InvalidMoveException("Current player is not a computer player");
+        }
+        return move(((ComputerPlayer) player).chooseMove(this));
+    }
+
+    /**
+     * Distributes the stones from chosen pit without throwing when the move is not legal.
+     * A legal move is played just as move() plays it, so it is journaled and its listeners are told.
+     * 
+     * @param startPit The pit where the stones will be taken from
+     * @return The number of Stones remaining on the players side, or -1 if the move is not legal
+     * @throws UncheckedIOException If the move was made but could not be journaled
+     */
+    public int tryMove(final int startPit) {
+        if (!gameBoard.isLegalMove(startPit)) {
+            return -1;
+        }
+        try {
+            return move(startPit);
+        } catch (InvalidMoveException err) {
+            return -1;
+        }
+    }
+
+    /**
+     * Gets the pits the current player can play as a bitmask
+     * 
+     * @return The bitmask where bit n is set when pit n can be played
+     * @see GameRules#getLegalMoves()
+     */
+    public int getLegalMoves() {
+        return gameBoard.getLegalMoves();
+    }
+
+    /**
+     * Looks up the current position in an endgame table
+     * 
+     * @param tablebase The table to probe
+     * @return The current player's final store count minus the opponent's with perfect play,
+     *         or EndgameTablebase.UNKNOWN if the table does not cover the position
+     */
+    public int probeTablebase(final EndgameTablebase tablebase) {
+        return tablebase.probe(gameBoard);
+    }
+
     /**
      * Returns the number of stones remaining on side of the board
      * 
@@ -205,19 +352,15 @@ public class MancalaGame implements Serializable {
      * @return The number of stones on the side of the board
      */
     public int getNumStonesOnSide(final int startPit) throws PitNotFoundException{
-        int totalStones = 0;
-        if (startPit >= 1 && startPit <= 6) {
-            for (int i = 1; i <= 6; i++){
-                totalStones += gameBoard.getNumStones(i);
-            }
-        } else if (startPit >= 7 && startPit < 13){
-            for (int i = 7; i < 13; i++) {
-                totalStones += gameBoard.getNumStones(i);
-            }
-        } else {
+        if (gameBoard.getGeometry().getSide(startPit) == 0) {
             throw new PitNotFoundException();
         }
-        return totalStones;
+        return countSide(startPit);
+    }
+
+    /*helper method that reads the running total of the side holding a valid pit*/
+    private int countSide(final int startPit) {
+        return gameBoard.getSideCount(gameBoard.getGeometry().getSide(startPit));
     }
 
     /**
@@ -235,7 +378,7 @@ public class MancalaGame implements Serializable {
     }
 
     /**
-     * Gets the winner of the game
+     * Gets the winner of the game, telling listeners the first time it is settled
      * 
      * @return The player who won the game, return null if the players tied
      */
@@ -250,6 +393,13 @@ public class MancalaGame implements Serializable {
         } else if (player1.getStoreCount() < player2.getStoreCount()){
             winner = player2;
         }
+        final GameListener[] current = listeners;
+        if (!resultAnnounced && current != null) {
+            for (final GameListener listener : current) {
+                listener.winnerDecided(this, winner);
+            }
+        }
+        resultAnnounced = true;
         return winner;
     }
 
@@ -259,11 +409,7 @@ public class MancalaGame implements Serializable {
      * @return A boolean value that says if the game is over
      */
     public boolean isGameOver(){
-        boolean gameOver = false;
-        if (gameBoard.isSideEmpty(3) || gameBoard.isSideEmpty(9)){
-            gameOver = true;
-        }
-        return gameOver;
+        return gameBoard.isGameOver();
     }
     
     /**
@@ -271,6 +417,33 @@ public class MancalaGame implements Serializable {
      */
     public void startNewGame(){
         gameBoard.resetBoard();
+        resultAnnounced = false;
+        if (journal != null) {
+            try {
+                journal.snapshot(this);
+            } catch (IOException err) {
+                throw new UncheckedIOException(err);
+            }
+        }
+    }
+
+    /**
+     * Sets the journal every move is recorded in, or null to stop recording
+     * 
+     * @param moveJournal The journal for this game
+     * @see MoveJournal#start(MancalaGame, java.nio.file.Path, String)
+     */
+    public void setJournal(final MoveJournal moveJournal) {
+        journal = moveJournal;
+    }
+
+    /**
+     * Gets the journal moves are recorded in
+     * 
+     * @return The journal, or null if moves are not recorded
+     */
+    public MoveJournal getJournal() {
+        return journal;
     }
 
     /**
@@ -281,11 +454,12 @@ public class MancalaGame implements Serializable {
     @Override
     public String toString(){
         final StringBuilder string = new StringBuilder();
-        for (int i = 12;i >= 7;i--){
+        final int side = gameBoard.getGeometry().getPitsPerSide();
+        for (int i = 2 * side;i > side;i--){
             string.append(String.format("%3d ", i));
         }
         string.append("\n" + gameBoard.toString());
-        for (int i = 1;i <= 6;i++){
+        for (int i = 1;i <= side;i++){
             string.append(String.format("%3d ", i));
         }
         string.append("\n");
@@ -0,0 +1,316 @@
+package mancala;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A strategy that picks moves with Monte Carlo tree search
+ *
+ * Each iteration walks down the tree choosing children by UCT, adds one new node,
+ * then plays random moves on a packed copy of the game until it ends and scores the
+ * result back up the path. Unlike SearchEngine it needs no evaluation, which suits
+ * AyoRules where long relays make a static score unreliable.
+ *
+ * With more than one thread every thread works on the same tree with its own copy of
+ * the game. A node counts a visit as soon as a thread passes through it, before the
+ * playout is scored, so other threads see it as a loss for a while and spread out
+ * over other branches (virtual loss).
+ * @see ComputerPlayer
+ * @see SearchEngine
+ */
+public class MonteCarloEngine implements MoveStrategy {
+
+    private static final double EXPLORATION = Math.sqrt(2);
+    private static final double WIN = 1.0;
+    private static final double DRAW = 0.5;
+    private static final int MAX_CHILDREN = BoardGeometry.MAX_PITS_PER_SIDE;
+    private static final long NANOS_PER_MILLI = 1_000_000L;
+    private static final long DEFAULT_TIME_LIMIT = 1000;
+
+    private long iterationLimit;
+    private long timeLimitNanos;
+    private int threads = 1;
+    private ForkJoinPool pool;
+    private final AtomicLong seeds = new AtomicLong(System.nanoTime());
+
+    private long lastPlayouts;
+    private long lastNanos;
+    private double lastWinRate;
+
+    /**
+     * Creates a MonteCarloEngine that searches for one second on each move
+     */
+    public MonteCarloEngine() {
+        this(0, DEFAULT_TIME_LIMIT);
+    }
+
+    /**
+     * Creates a MonteCarloEngine. The search stops at whichever limit comes first,
+     * and a limit of 0 means no limit, but at least one limit must be set.
+     *
+     * @param iterations      The number of playouts for each move, or 0 for no limit
+     * @param timeLimitMillis The time to spend on each move in milliseconds, or 0 for no limit
+     */
+    public MonteCarloEngine(final long iterations, final long timeLimitMillis) {
+        setLimits(iterations, timeLimitMillis);
+    }
+
+    /**
+     * Sets when the search stops. A limit of 0 means no limit, but at least one limit must be set.
+     *
+     * @param iterations      The number of playouts for each move, or 0 for no limit
+     * @param timeLimitMillis The time to spend on each move in milliseconds, or 0 for no limit
+     */
+    public final void setLimits(final long iterations, final long timeLimitMillis) {
+        if (iterations < 0 || timeLimitMillis < 0 || iterations == 0 && timeLimitMillis == 0) {
+            throw new IllegalArgumentException("Need an iteration count or a time limit");
+        }
+        iterationLimit = iterations;
+        timeLimitNanos = timeLimitMillis * NANOS_PER_MILLI;
+    }
+
+    /**
+     * Sets the number of threads running playouts. The worker threads
+     * are daemon threads owned by this engine.
+     *
+     * @param threadCount The number of threads, at least 1
+     */
+    public void setThreads(final int threadCount) {
+        if (threadCount < 1) {
+            throw new IllegalArgumentException("Need at least one thread");
+        }
+        if (pool != null) {
+            pool.shutdown();
+            pool = null;
+        }
+        threads = threadCount;
+    }
+
+    /**
+     * Searches the position and returns the most visited pit
+     *
+     * @param rules The game rules holding the position, left unchanged
+     * @return The pit to play
+     */
+    @Override
+    public int chooseMove(final GameRules rules) {
+        final long start = System.nanoTime();
+        final int legal = rules.getLegalMoves();
+        if (legal == 0) {
+            throw new IllegalStateException("No legal moves");
+        }
+        lastPlayouts = 0;
+        lastWinRate = 0;
+        if (Integer.bitCount(legal) == 1) {
+            lastNanos = System.nanoTime() - start;
+            return Integer.numberOfTrailingZeros(legal);
+        }
+        final Node root = new Node(null, 0, 0, legal, false);
+        final AtomicLong remaining = new AtomicLong(iterationLimit > 0 ? iterationLimit : Long.MAX_VALUE);
+        final long deadline = timeLimitNanos > 0 ? start + timeLimitNanos : Long.MAX_VALUE;
+        if (threads == 1) {
+            lastPlayouts = runPlayouts(root, rules.copy(), remaining, deadline);
+        } else {
+            lastPlayouts = runParallel(root, rules, remaining, deadline);
+        }
+        final Node best = root.mostVisited();
+        lastWinRate = best.reward / best.visits;
+        lastNanos = System.nanoTime() - start;
+        return best.move;
+    }
+
+    private long runParallel(final Node root, final GameRules rules, final AtomicLong remaining,
+                             final long deadline) {
+        final List<Callable<Long>> tasks = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            final GameRules board = rules.copy();
+            tasks.add(() -> runPlayouts(root, board, remaining, deadline));
+        }
+        if (pool == null) {
+            pool = new ForkJoinPool(threads);
+        }
+        long total = 0;
+        try {
+            for (Future<Long> result : pool.invokeAll(tasks)) {
+                total += result.get();
+            }
+        } catch (InterruptedException err) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException err) {
+            throw new IllegalStateException(err.getCause());
+        }
+        return total;
+    }
+
+    /*runs iterations on one thread until the shared count runs out or time is up*/
+    private long runPlayouts(final Node root, final GameRules board, final AtomicLong remaining,
+                             final long deadline) {
+        final SplittableRandom random = new SplittableRandom(seeds.incrementAndGet());
+        long count = 0;
+        while (remaining.getAndDecrement() > 0 && (count == 0 || System.nanoTime() - deadline < 0)) {
+            iterate(root, board, random);
+            count++;
+        }
+        return count;
+    }
+
+    /*one selection, expansion, playout and backup, leaving the board as it was found*/
+    private void iterate(final Node root, final GameRules board, final SplittableRandom random) {
+        int made = 0;
+        Node node = root;
+        node.addVisit();
+        while (!node.terminal) {
+            final Node child = node.expand(board, random);
+            if (child != null) {
+                made++;
+                node = child;
+                break;
+            }
+            node = node.select();
+            node.addVisit();
+            board.makeMove(node.move);
+            made++;
+        }
+        while (!board.isGameOver()) {
+            board.makeMove(randomMove(board.getLegalMoves(), random));
+            made++;
+        }
+        final int score = SearchEngine.finalScore(board);
+        final int winner = score == 0 ? 0 : (score > 0 ? board.getCurrentPlayer() : 3 - board.getCurrentPlayer());
+        for (int i = 0; i < made; i++) {
+            board.unmakeMove();
+        }
+        for (Node step = node; step != null; step = step.parent) {
+            step.addReward(winner);
+        }
+    }
+
+    /*picks one of the set bits of the legal move mask*/
+    private static int randomMove(final int legal, final SplittableRandom random) {
+        int remaining = legal;
+        for (int skip = random.nextInt(Integer.bitCount(legal)); skip > 0; skip--) {
+            remaining &= remaining - 1;
+        }
+        return Integer.numberOfTrailingZeros(remaining);
+    }
+
+    /**
+     * Gets the number of playouts run by the previous search, over all threads
+     *
+     * @return The playout count
+     */
+    public long getPlayouts() {
+        return lastPlayouts;
+    }
+
+    /**
+     * Gets the speed of the previous search, over all threads
+     *
+     * @return The playouts run per second
+     */
+    public long getPlayoutsPerSecond() {
+        return lastNanos == 0 ? 0 : lastPlayouts * 1_000_000_000L / lastNanos;
+    }
+
+    /**
+     * Gets how often the chosen move won its playouts in the previous search
+     *
+     * @return The share of playouts won, counting a draw as half
+     */
+    public double getWinRate() {
+        return lastWinRate;
+    }
+
+    /**
+     * A position in the search tree. Its statistics are kept for the player
+     * who made the move leading to it and are only changed while holding its lock.
+     * They are volatile because its parent reads them while holding only the parent's lock.
+     */
+    private static final class Node {
+        private final Node parent;
+        private final int move;
+        private final int mover;
+        private final boolean terminal;
+        private int untried;
+        private final Node[] children = new Node[MAX_CHILDREN];
+        private int childCount;
+        private volatile int visits;
+        private volatile double reward;
+
+        private Node(final Node parentNode, final int pit, final int player, final int legal,
+                     final boolean gameOver) {
+            parent = parentNode;
+            move = pit;
+            mover = player;
+            untried = gameOver ? 0 : legal;
+            terminal = gameOver;
+        }
+
+        private synchronized void addVisit() {
+            visits++;
+        }
+
+        private synchronized void addReward(final int winner) {
+            if (winner == 0) {
+                reward += DRAW;
+            } else if (winner == mover) {
+                reward += WIN;
+            }
+        }
+
+        /*plays and adds one untried move as a new child, or returns null once every move has been tried*/
+        private Node expand(final GameRules board, final SplittableRandom random) {
+            synchronized (this) {
+                if (untried == 0) {
+                    return null;
+                }
+                final int pit = randomMove(untried, random);
+                untried &= ~(1 << pit);
+                final int player = board.getCurrentPlayer();
+                board.makeMove(pit);
+                final Node child = new Node(this, pit, player, board.getLegalMoves(), board.isGameOver());
+                child.visits = 1;
+                children[childCount] = child;
+                childCount++;
+                return child;
+            }
+        }
+
+        /*picks the child with the best upper confidence bound*/
+        private synchronized Node select() {
+            final double logVisits = Math.log(visits);
+            Node best = children[0];
+            double bestValue = Double.NEGATIVE_INFINITY;
+            for (int i = 0; i < childCount; i++) {
+                final Node child = children[i];
+                final int childVisits = child.visits; // read each once, other threads may be updating them
+                if (childVisits == 0) {
+                    return child;
+                }
+                final double value = child.reward / childVisits
+                    + EXPLORATION * Math.sqrt(logVisits / childVisits);
+                if (value > bestValue) {
+                    bestValue = value;
+                    best = child;
+                }
+            }
+            return best;
+        }
+
+        private synchronized Node mostVisited() {
+            Node best = children[0];
+            for (int i = 1; i < childCount; i++) {
+                if (children[i].visits > best.visits) {
+                    best = children[i];
+                }
+            }
+            return best;
+        }
+    }
+}
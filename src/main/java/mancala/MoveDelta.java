@@ -0,0 +1,260 @@
+package mancala;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * The changes one move made to the board, small enough to send after every move
+ *
+ * Rather than the whole board, a delta holds the pits whose counts changed with their new
+ * counts, how many stones each store gained, how many stones were captured, and who moves
+ * next. A copy of the board from before the move, such as the buttons of the GUI or the view
+ * of a remote client, is brought up to date by applying just these changes.
+ *
+ * Encoded as:
+ * <pre>
+ * player(1, bits 0-1 the player who moved, bits 2-3 the next player) pit(1)
+ * store one gain(varint) store two gain(varint) captured(varint)
+ * then for each changed pit: pit number(1) new count(varint)
+ * </pre>
+ * so the header is five bytes and a pit holding under 128 stones costs two more.
+ * @see GameRules#getLastChange()
+ */
+public final class MoveDelta {
+
+    private static final int PLAYER_BITS = 2;
+    private static final int PLAYER_MASK = 0x3;
+
+    private final int pit;
+    private final int player;
+    private final int nextPlayer;
+    private final int storeOneGain;
+    private final int storeTwoGain;
+    private final int captured;
+    private final int[] changedPits;
+    private final int[] newCounts;
+
+    private MoveDelta(final int pitPlayed, final int mover, final int next, final int oneGain,
+                      final int twoGain, final int stonesCaptured, final int[] pits, final int[] counts) {
+        pit = pitPlayed;
+        player = mover;
+        nextPlayer = next;
+        storeOneGain = oneGain;
+        storeTwoGain = twoGain;
+        captured = stonesCaptured;
+        changedPits = pits;
+        newCounts = counts;
+    }
+
+    /**
+     * Creates the delta for the last move made, by comparing the board with a copy saved
+     * before the move. Only moves whose changes are asked for pay for this, so searches
+     * and unwatched games are not slowed down.
+     *
+     * @param rules          The rules, as the move left them
+     * @param pitPlayed      The pit the move was played from
+     * @param mover          The player who moved
+     * @param before         The board before the move, as saved by MancalaDataStructure.saveState
+     * @param stonesCaptured The stones the move captured
+     * @return The delta
+     */
+    /* default */ static MoveDelta of(final GameRules rules, final int pitPlayed, final int mover,
+                                      final int[] before, final int stonesCaptured) {
+        final BoardGeometry geometry = rules.getGeometry();
+        final int pitCount = geometry.getPitCount();
+        final int[] pits = new int[pitCount];
+        final int[] counts = new int[pitCount];
+        int changes = 0;
+        for (int pit = 1; pit <= pitCount; pit++) {
+            final int count = rules.getNumStones(pit);
+            if (count != before[geometry.getPitIndex(pit)]) {
+                pits[changes] = pit;
+                counts[changes++] = count;
+            }
+        }
+        final int oneGain = rules.getStoreCount(1) - before[geometry.getStoreIndex(1)];
+        final int twoGain = rules.getStoreCount(2) - before[geometry.getStoreIndex(2)];
+        return new MoveDelta(pitPlayed, mover, rules.getCurrentPlayer(), oneGain, twoGain, stonesCaptured,
+            Arrays.copyOf(pits, changes), Arrays.copyOf(counts, changes));
+    }
+
+    /**
+     * Gets the pit the move was played from
+     *
+     * @return The pit number
+     */
+    public int getPit() {
+        return pit;
+    }
+
+    /**
+     * Gets the player who made the move
+     *
+     * @return The player number (1 or 2)
+     */
+    public int getPlayer() {
+        return player;
+    }
+
+    /**
+     * Gets the player whose turn it is after the move
+     *
+     * @return The player number (1 or 2)
+     */
+    public int getNextPlayer() {
+        return nextPlayer;
+    }
+
+    /**
+     * Gets whether the move earned the player another turn
+     *
+     * @return True if the same player moves again
+     */
+    public boolean isBonusTurn() {
+        return nextPlayer == player;
+    }
+
+    /**
+     * Gets how many stones the move captured into the player's store
+     *
+     * @return The number of stones captured, 0 if there was no capture
+     */
+    public int getCaptured() {
+        return captured;
+    }
+
+    /**
+     * Gets how many stones a player's store gained from the move
+     *
+     * @param playerNum The player number (1 or 2)
+     * @return The number of stones added to the store
+     */
+    public int getStoreGain(final int playerNum) {
+        return playerNum == 1 ? storeOneGain : storeTwoGain;
+    }
+
+    /**
+     * Gets how many pits the move changed
+     *
+     * @return The number of changed pits
+     */
+    public int getChangeCount() {
+        return changedPits.length;
+    }
+
+    /**
+     * Gets one of the pits the move changed, in ascending order
+     *
+     * @param index The index of the change, from 0 to getChangeCount() - 1
+     * @return The pit number
+     */
+    public int getChangedPit(final int index) {
+        return changedPits[index];
+    }
+
+    /**
+     * Gets the number of stones a changed pit holds after the move
+     *
+     * @param index The index of the change, from 0 to getChangeCount() - 1
+     * @return The new stone count of the pit
+     */
+    public int getNewCount(final int index) {
+        return newCounts[index];
+    }
+
+    /**
+     * Encodes the delta in its compact binary form
+     *
+     * @return The encoded bytes
+     */
+    public byte[] toBytes() {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream(5 + 2 * changedPits.length);
+        out.write(player | nextPlayer << PLAYER_BITS);
+        out.write(pit);
+        GameCodec.writeVarint(out, storeOneGain);
+        GameCodec.writeVarint(out, storeTwoGain);
+        GameCodec.writeVarint(out, captured);
+        for (int i = 0; i < changedPits.length; i++) {
+            out.write(changedPits[i]);
+            GameCodec.writeVarint(out, newCounts[i]);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Decodes a delta written by toBytes
+     *
+     * @param bytes The encoded delta
+     * @return The delta
+     * @throws IOException If the bytes do not hold a delta
+     */
+    public static MoveDelta fromBytes(final byte[] bytes) throws IOException {
+        final ByteBuffer in = ByteBuffer.wrap(bytes);
+        try {
+            final int players = in.get();
+            final int mover = players & PLAYER_MASK;
+            final int next = players >> PLAYER_BITS & PLAYER_MASK;
+            if (mover < 1 || mover > 2 || next < 1 || next > 2) {
+                throw new IOException("Corrupt move delta");
+            }
+            final int pitPlayed = in.get() & 0xFF;
+            final int oneGain = GameCodec.readVarint(in);
+            final int twoGain = GameCodec.readVarint(in);
+            final int stonesCaptured = GameCodec.readVarint(in);
+            int[] pits = new int[BoardGeometry.MAX_PITS_PER_SIDE * 2];
+            int[] counts = new int[pits.length];
+            int changes = 0;
+            while (in.hasRemaining()) {
+                if (changes == pits.length) {
+                    throw new IOException("Corrupt move delta");
+                }
+                pits[changes] = in.get() & 0xFF;
+                counts[changes++] = GameCodec.readVarint(in);
+            }
+            pits = Arrays.copyOf(pits, changes);
+            counts = Arrays.copyOf(counts, changes);
+            return new MoveDelta(pitPlayed, mover, next, oneGain, twoGain, stonesCaptured, pits, counts);
+        } catch (BufferUnderflowException err) {
+            throw new IOException("Corrupt move delta", err);
+        }
+    }
+
+    @Override
+    public boolean equals(final Object other) {
+        if (!(other instanceof MoveDelta)) {
+            return false;
+        }
+        final MoveDelta delta = (MoveDelta) other;
+        return pit == delta.pit && player == delta.player && nextPlayer == delta.nextPlayer
+            && storeOneGain == delta.storeOneGain && storeTwoGain == delta.storeTwoGain
+            && captured == delta.captured && Arrays.equals(changedPits, delta.changedPits)
+            && Arrays.equals(newCounts, delta.newCounts);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Arrays.hashCode(changedPits) + Arrays.hashCode(newCounts) + pit;
+    }
+
+    /**
+     * Returns a one line description of the delta, as in "1:3 3=0 4=5 5=5 6=5 +1,+0 next 1"
+     *
+     * @return The description
+     */
+    @Override
+    public String toString() {
+        final StringBuilder line = new StringBuilder();
+        line.append(player).append(':').append(pit);
+        for (int i = 0; i < changedPits.length; i++) {
+            line.append(' ').append(changedPits[i]).append('=').append(newCounts[i]);
+        }
+        line.append(" +").append(storeOneGain).append(",+").append(storeTwoGain);
+        if (captured > 0) {
+            line.append(" captured ").append(captured);
+        }
+        return line.append(" next ").append(nextPlayer).toString();
+    }
+}
@@ -0,0 +1,250 @@
+package mancala;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+
+/**
+ * An append-only log of the moves made in a MancalaGame, so a game survives a crash
+ * without being saved in full after every move
+ *
+ * A journal keeps two files for each game name. The snapshot file holds the whole game in
+ * the GameCodec format together with the number of moves it includes. The journal file
+ * holds one eight byte record for every move made since:
+ * <pre>
+ * sequence(4) pit(1) player(1) checksum(2, low bits of the CRC32 of the first six bytes)
+ * </pre>
+ * Each record is written to the file as soon as the move is made, so it survives the program
+ * crashing, and the file is forced to disk after every few records and when the journal is
+ * closed, so at most that many moves can be lost if the machine itself goes down. Every so
+ * many moves a new snapshot is written and the journal is emptied, which keeps replay short.
+ *
+ * recover loads the snapshot and replays the records after it, stopping at the first record
+ * that is torn or does not follow on, and carries on journaling the recovered game.
+ * @see MancalaGame#setJournal(MoveJournal)
+ */
+public class MoveJournal implements AutoCloseable {
+
+    /** The number of moves between forcing the journal to disk, unless set otherwise */
+    public static final int DEFAULT_SYNC_INTERVAL = 8;
+    /** The number of moves between snapshots, unless set otherwise */
+    public static final int DEFAULT_SNAPSHOT_INTERVAL = 64;
+
+    /* default */ static final int RECORD_SIZE = 8;
+    private static final int CHECKED_BYTES = 6;
+    private static final int SNAPSHOT_MAGIC = 0x4D4E534E; // "MNSN"
+    private static final int SNAPSHOT_HEADER = 2 * Integer.BYTES;
+    private static final int CHECKSUM_MASK = 0xFFFF;
+
+    private final Path journalFile;
+    private final Path snapshotFile;
+    private final FileChannel channel;
+    private final ByteBuffer record = ByteBuffer.allocateDirect(RECORD_SIZE);
+    private final CRC32 crc = new CRC32();
+    private int syncInterval = DEFAULT_SYNC_INTERVAL;
+    private int snapshotInterval = DEFAULT_SNAPSHOT_INTERVAL;
+    private int sequence;       // moves made in the game so far
+    private int snapshotMoves;  // moves included in the snapshot on disk
+    private int unsynced;
+
+    private MoveJournal(final Path directory, final String name, final int moves) throws IOException {
+        Files.createDirectories(directory);
+        journalFile = directory.resolve(name + ".journal");
+        snapshotFile = directory.resolve(name + ".snapshot");
+        channel = FileChannel.open(journalFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        sequence = moves;
+        snapshotMoves = moves;
+    }
+
+    /**
+     * Starts journaling a game, writing a snapshot of it and an empty journal
+     *
+     * @param game      The game to journal
+     * @param directory The directory to keep the files in
+     * @param name      The name of the game, used for the file names
+     * @return The journal, already attached to the game
+     * @throws IOException If the files could not be written
+     */
+    public static MoveJournal start(final MancalaGame game, final Path directory, final String name)
+            throws IOException {
+        final MoveJournal journal = new MoveJournal(directory, name, 0);
+        journal.snapshot(game);
+        game.setJournal(journal);
+        return journal;
+    }
+
+    /**
+     * Rebuilds a game from its latest snapshot and the moves journaled after it, then carries on journaling it
+     *
+     * @param directory The directory the files are kept in
+     * @param name      The name of the game
+     * @return The recovered game, with the journal attached
+     * @throws IOException If there is no readable snapshot
+     */
+    public static MancalaGame recover(final Path directory, final String name) throws IOException {
+        final byte[] saved = Files.readAllBytes(directory.resolve(name + ".snapshot"));
+        final ByteBuffer header = ByteBuffer.wrap(saved);
+        if (saved.length < SNAPSHOT_HEADER || header.getInt(0) != SNAPSHOT_MAGIC) {
+            throw new IOException("Not a game snapshot");
+        }
+        final int moves = header.getInt(Integer.BYTES);
+        final Serializable loaded = GameCodec.decode(Arrays.copyOfRange(saved, SNAPSHOT_HEADER, saved.length));
+        if (!(loaded instanceof MancalaGame)) {
+            throw new IOException("Snapshot does not hold a game");
+        }
+        final MancalaGame game = (MancalaGame) loaded;
+        final MoveJournal journal = new MoveJournal(directory, name, moves);
+        journal.replay(game);
+        game.setJournal(journal);
+        return game;
+    }
+
+    /*plays the records that follow on from the snapshot and cuts the file after the last good one*/
+    private void replay(final MancalaGame game) throws IOException {
+        final ByteBuffer records = ByteBuffer.wrap(Files.readAllBytes(journalFile));
+        long good = 0;
+        while (records.remaining() >= RECORD_SIZE) {
+            final int start = records.position();
+            final int seq = records.getInt();
+            final int pit = records.get();
+            final int player = records.get();
+            final int checksum = records.getShort() & CHECKSUM_MASK;
+            if (checksum != checksum(records, start)) {
+                break;
+            }
+            if (seq <= sequence) {
+                good = records.position(); // already in the snapshot
+                continue;
+            }
+            if (seq != sequence + 1 || player != game.getBoard().getCurrentPlayer()
+                    || !game.getBoard().isLegalMove(pit)) {
+                break;
+            }
+            try {
+                game.move(pit);
+            } catch (InvalidMoveException err) {
+                break;
+            }
+            sequence = seq;
+            good = records.position();
+        }
+        channel.truncate(good);
+        channel.position(good);
+    }
+
+    private int checksum(final ByteBuffer buffer, final int start) {
+        crc.reset();
+        final ByteBuffer checked = buffer.duplicate();
+        checked.position(start).limit(start + CHECKED_BYTES);
+        crc.update(checked);
+        return (int) crc.getValue() & CHECKSUM_MASK;
+    }
+
+    /**
+     * Sets how many moves are journaled before the file is forced to disk
+     *
+     * @param moves The number of moves, at least 1
+     */
+    public void setSyncInterval(final int moves) {
+        if (moves < 1) {
+            throw new IllegalArgumentException("Sync interval must be at least 1");
+        }
+        syncInterval = moves;
+    }
+
+    /**
+     * Sets how many moves are journaled before a new snapshot replaces the journal
+     *
+     * @param moves The number of moves, at least 1
+     */
+    public void setSnapshotInterval(final int moves) {
+        if (moves < 1) {
+            throw new IllegalArgumentException("Snapshot interval must be at least 1");
+        }
+        snapshotInterval = moves;
+    }
+
+    /**
+     * Gets the number of moves made in the game since the journal was started
+     *
+     * @return The move count
+     */
+    public int getSequence() {
+        return sequence;
+    }
+
+    /**
+     * Records a move that has just been made
+     *
+     * @param game   The game the move was made in, snapshotted when enough moves have built up
+     * @param pit    The pit that was played
+     * @param player The player who played it (1 or 2)
+     * @throws IOException If the record could not be written
+     */
+    /* default */ void append(final MancalaGame game, final int pit, final int player) throws IOException {
+        sequence++;
+        if (sequence - snapshotMoves >= snapshotInterval) {
+            snapshot(game);
+            return;
+        }
+        record.clear();
+        record.putInt(sequence).put((byte) pit).put((byte) player);
+        record.putShort((short) checksum(record, 0));
+        record.flip();
+        while (record.hasRemaining()) {
+            channel.write(record);
+        }
+        unsynced++;
+        if (unsynced >= syncInterval) {
+            sync();
+        }
+    }
+
+    /**
+     * Writes a snapshot of the game as it is now and empties the journal
+     *
+     * @param game The game being journaled
+     * @throws IOException If the snapshot could not be written
+     */
+    public void snapshot(final MancalaGame game) throws IOException {
+        final byte[] encoded = GameCodec.encode(game);
+        final ByteBuffer saved = ByteBuffer.allocate(SNAPSHOT_HEADER + encoded.length);
+        saved.putInt(SNAPSHOT_MAGIC).putInt(sequence).put(encoded);
+        Saver.writeAtomically(snapshotFile, saved.array()); // on disk, renamed and all, once this returns
+        snapshotMoves = sequence;
+        // records up to the snapshot are skipped on replay, so a crash before this is harmless
+        channel.truncate(0);
+        channel.position(0);
+        unsynced = 0;
+    }
+
+    /**
+     * Forces every journaled move to disk
+     *
+     * @throws IOException If the file could not be forced
+     */
+    public void sync() throws IOException {
+        channel.force(false);
+        unsynced = 0;
+    }
+
+    /**
+     * Forces the journal to disk and closes it
+     *
+     * @throws IOException If the file could not be forced or closed
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            sync();
+        } finally {
+            channel.close();
+        }
+    }
+}
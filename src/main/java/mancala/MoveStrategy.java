@@ -0,0 +1,18 @@
+package mancala;
+
+/**
+ * Interface representing a way of choosing moves for a computer player
+ *
+ * @see ComputerPlayer
+ */
+public interface MoveStrategy {
+
+    /**
+     * Choose a pit for the current player to play.
+     * The rules passed in must not be changed by the strategy.
+     *
+     * @param rules The game rules holding the position to move from.
+     * @return The pit to play.
+     */
+    int chooseMove(GameRules rules);
+}
@@ -0,0 +1,47 @@
+package mancala;
+
+import java.util.SplittableRandom;
+
+/**
+ * A strategy that plays a random legal pit, for playouts and as a baseline opponent
+ *
+ * @see ComputerPlayer
+ */
+public class RandomStrategy implements MoveStrategy {
+
+    private final SplittableRandom random;
+
+    /**
+     * Creates a RandomStrategy with a random seed
+     */
+    public RandomStrategy() {
+        random = new SplittableRandom();
+    }
+
+    /**
+     * Creates a RandomStrategy that always plays the same moves from the same positions
+     *
+     * @param seed The seed for the random moves
+     */
+    public RandomStrategy(final long seed) {
+        random = new SplittableRandom(seed);
+    }
+
+    /**
+     * Picks one of the legal pits with equal chance
+     *
+     * @param rules The game rules holding the position, left unchanged
+     * @return The pit to play
+     */
+    @Override
+    public int chooseMove(final GameRules rules) {
+        int legal = rules.getLegalMoves();
+        if (legal == 0) {
+            throw new IllegalStateException("No legal moves");
+        }
+        for (int skip = random.nextInt(Integer.bitCount(legal)); skip > 0; skip--) {
+            legal &= legal - 1;
+        }
+        return Integer.numberOfTrailingZeros(legal);
+    }
+}
@@ -7,22 +7,34 @@ package mancala;
 
 import java.io.IOException;
 import java.io.Serializable;
-import java.io.FileOutputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.ObjectOutputStream;
 import java.io.ObjectInputStream;
-import java.io.FileInputStream;
+import java.io.ByteArrayInputStream;
 import java.io.BufferedReader;
 import java.io.FileReader;
 import java.io.File;
 
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 
 /**
  * A utility class that provides methods for saving and loading serializable objects
+ *
+ * Games and players are written in the compact GameCodec format, anything else with Java
+ * serialization. Loading looks at the first bytes of the file to tell the two apart,
+ * so files saved before the codec existed still load and can be rewritten with migrateFile.
+ * @see GameCodec
  */
 public class Saver {
 
+    transient private static final int STREAM_MAGIC = 0xACED; // first two bytes of Java serialization
+
     /**
      * Saves a serializable object to a file
      * 
@@ -30,16 +42,7 @@ public class Saver {
      * @param filename The file where the object is to be stored
      */
     public static void saveObject(final Serializable toSave, final String filename) throws IOException {
-        final StringBuilder filepath = new StringBuilder("assets/");
-        File directory = new File(filepath.toString());
-        if (!directory.exists()) {
-            Files.createDirectories(Path.of(filepath.toString()));
-        }
-        filepath.append(" " + filename);
-        try (FileOutputStream fileOutStream = new FileOutputStream(filepath.toString());
-             ObjectOutputStream objOutStream = new ObjectOutputStream(fileOutStream);) {
-            objOutStream.writeObject(toSave);
-        }
+        saveFile(toSave, savePath(filename));
     }
 
     /**
@@ -49,14 +52,105 @@ public class Saver {
      * @return The serializable object from the file
      */
     public static Serializable loadObject(final String filename) throws IOException {
+        return loadFile(savePath(filename));
+    }
+
+    /**
+     * Rewrites a game or player saved with Java serialization in the compact format
+     * 
+     * @param filename The name of the file where the object is held
+     * @return Whether the file was rewritten, false if it was already compact or holds something else
+     */
+    public static boolean migrateFile(final String filename) throws IOException {
+        final Path file = savePath(filename);
+        if (GameCodec.isEncoded(Files.readAllBytes(file))) {
+            return false;
+        }
+        final Serializable loaded = loadFile(file);
+        if (!GameCodec.canEncode(loaded)) {
+            return false;
+        }
+        saveFile(loaded, file);
+        return true;
+    }
+
+    /*helper method that finds the file in the assets directory, creating the directory if needed*/
+    /* default */ static Path savePath(final String filename) throws IOException {
         final StringBuilder filepath = new StringBuilder("assets/");
         File directory = new File(filepath.toString());
         if (!directory.exists()) {
             Files.createDirectories(Path.of(filepath.toString()));
         }
         filepath.append(" " + filename);
-        try (FileInputStream fileIn = new FileInputStream(filepath.toString());
-             ObjectInputStream fileInStream = new ObjectInputStream(fileIn);) {
+        return Path.of(filepath.toString());
+    }
+
+    /*writes an object to any path, compact when the codec supports it*/
+    /* default */ static void saveFile(final Serializable toSave, final Path file) throws IOException {
+        writeAtomically(file, toBytes(toSave));
+    }
+
+    /*turns an object into the bytes saveFile writes*/
+    /* default */ static byte[] toBytes(final Serializable toSave) throws IOException {
+        if (GameCodec.canEncode(toSave)) {
+            return GameCodec.encode(toSave);
+        }
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream objOutStream = new ObjectOutputStream(bytes);) {
+            objOutStream.writeObject(toSave);
+        }
+        return bytes.toByteArray();
+    }
+
+    /*writes to a temporary file beside the target and renames it over the target, so a
+    crash part way through leaves the old file whole instead of half written. The data is
+    forced to disk before the rename and the rename before returning, so once this returns
+    the new file survives a power loss*/
+    /* default */ static void writeAtomically(final Path file, final byte[] data) throws IOException {
+        final Path target = file.toAbsolutePath();
+        final Path temp = Files.createTempFile(target.getParent(), ".save", ".tmp");
+        try {
+            try (FileChannel out = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                final ByteBuffer buffer = ByteBuffer.wrap(data);
+                while (buffer.hasRemaining()) {
+                    out.write(buffer);
+                }
+                out.force(true);
+            }
+            try {
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException err) {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+            forceDirectory(target.getParent());
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /*forces a directory's entries to disk, which some platforms such as Windows do not allow opening a directory for*/
+    private static void forceDirectory(final Path directory) throws IOException {
+        final FileChannel channel;
+        try {
+            channel = FileChannel.open(directory, StandardOpenOption.READ);
+        } catch (IOException err) {
+            return;
+        }
+        try (channel) {
+            channel.force(true);
+        }
+    }
+
+    /*reads an object written in either format from any path*/
+    /* default */ static Serializable loadFile(final Path file) throws IOException {
+        final byte[] data = Files.readAllBytes(file);
+        if (GameCodec.isEncoded(data)) {
+            return GameCodec.decode(data);
+        }
+        if (data.length < 2 || ((data[0] & 0xFF) << 8 | data[1] & 0xFF) != STREAM_MAGIC) {
+            throw new IOException("Not a saved file");
+        }
+        try (ObjectInputStream fileInStream = new ObjectInputStream(new ByteArrayInputStream(data));) {
             return (Serializable) fileInStream.readObject();
         } catch (ClassNotFoundException err) {
             throw new IOException();
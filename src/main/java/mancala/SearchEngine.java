@@ -0,0 +1,557 @@
+package mancala;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A strategy that picks moves with an iterative deepening alpha-beta search
+ *
+ * Works with both KalahRules and AyoRules by playing moves on private copies of the game
+ * through GameRules.makeMove and unmakeMove, so no memory is allocated per node.
+ * Moves are ordered with the best move from the previous iteration first, then by a
+ * history table of moves that caused cutoffs. A bonus turn keeps the same player to move,
+ * so the score is only negated when the player actually changes.
+ *
+ * With more than one thread the first root move is searched alone to set a bound, then
+ * the remaining root moves are shared out over a ForkJoinPool, each thread on its own copy
+ * of the game and all of them raising a shared alpha as better moves are found.
+ * A position has at most six root moves, so threads beyond those become Lazy SMP helpers:
+ * they search the whole position in a different move order, every other one a ply deeper,
+ * only to fill the shared TranspositionTable for the root threads, and stop as soon as the
+ * root moves are done. Every thread reads and writes the same lock-free TranspositionTable.
+ * With an EndgameTablebase set, positions it covers are scored exactly without searching.
+ * @see ComputerPlayer
+ * @see TranspositionTable
+ * @see EndgameTablebase
+ */
+public class SearchEngine implements MoveStrategy {
+
+    /** Scores a position by how far the player to move is ahead in stores */
+    public static final Evaluator STORE_DIFFERENCE = rules -> {
+        final int player = rules.getCurrentPlayer();
+        return rules.getStoreCount(player) - rules.getStoreCount(3 - player);
+    };
+
+    /* default */ static final int INFINITY = 1_000_000;
+    /* default */ static final int MAX_DEPTH = 64;
+    private static final int SIDE = BoardGeometry.MAX_PITS_PER_SIDE;
+    private static final int PITS = 2 * SIDE;
+    private static final int CHECK_INTERVAL = 1023; // nodes between looks at the clock
+    private static final long NANOS_PER_MILLI = 1_000_000L;
+    private static final long DEFAULT_BUDGET = 1000;
+    private static final int DEFAULT_HASH_MEGABYTES = 16;
+
+    private final Evaluator evaluator;
+    private long timeBudgetNanos;
+    private int maxDepth = MAX_DEPTH;
+    private int threads = 1;
+    private ForkJoinPool pool;
+    private Worker[] workers = {new Worker()};
+    private int hashMegabytes = DEFAULT_HASH_MEGABYTES;
+    private TranspositionTable table;
+    private EndgameTablebase tablebase;
+
+    private long deadline;
+    private volatile boolean stopped;
+    private volatile boolean helpersDone; // set once the root moves of an iteration are searched
+    private volatile int completedDepth;
+    private int bestScore;
+    private int bestMove;
+    private int lastScore;
+    private long lastNodes;
+    private long lastNanos;
+
+    /**
+     * Creates a SearchEngine that scores positions by store difference
+     * and spends up to one second on each move
+     */
+    public SearchEngine() {
+        this(STORE_DIFFERENCE, DEFAULT_BUDGET);
+    }
+
+    /**
+     * Creates a SearchEngine
+     *
+     * @param positionEvaluator The evaluation used at the edge of the search
+     * @param timeBudgetMillis  The time to spend on each move in milliseconds
+     */
+    public SearchEngine(final Evaluator positionEvaluator, final long timeBudgetMillis) {
+        evaluator = positionEvaluator;
+        setTimeBudget(timeBudgetMillis);
+    }
+
+    /**
+     * Sets the time to spend on each move. The first iteration always finishes,
+     * so a move is found however small the budget.
+     *
+     * @param timeBudgetMillis The time budget in milliseconds
+     */
+    public final void setTimeBudget(final long timeBudgetMillis) {
+        timeBudgetNanos = timeBudgetMillis * NANOS_PER_MILLI;
+    }
+
+    /**
+     * Sets the deepest iteration the search will run
+     *
+     * @param depth The maximum depth in moves, from 1 to 64
+     */
+    public void setMaxDepth(final int depth) {
+        if (depth < 1 || depth > MAX_DEPTH) {
+            throw new IllegalArgumentException("Depth must be between 1 and " + MAX_DEPTH);
+        }
+        maxDepth = depth;
+    }
+
+    /**
+     * Sets the number of threads the search runs on. The worker threads
+     * are daemon threads owned by this engine.
+     *
+     * @param threadCount The number of threads, at least 1
+     */
+    public void setThreads(final int threadCount) {
+        if (threadCount < 1) {
+            throw new IllegalArgumentException("Need at least one thread");
+        }
+        if (pool != null) {
+            pool.shutdown();
+            pool = null;
+        }
+        threads = threadCount;
+        workers = new Worker[threadCount];
+        for (int i = 0; i < threadCount; i++) {
+            workers[i] = new Worker();
+        }
+    }
+
+    /**
+     * Sets the size of the transposition table shared by the search threads
+     *
+     * @param megabytes The table size in megabytes, or 0 to search without a table
+     */
+    public void setHashSize(final int megabytes) {
+        if (megabytes < 0) {
+            throw new IllegalArgumentException("Table size cannot be negative");
+        }
+        hashMegabytes = megabytes;
+        table = null;
+    }
+
+    /**
+     * Sets an endgame table to look up positions with few stones left instead of searching them
+     *
+     * @param endings The table to probe, or null to search every position
+     */
+    public void setTablebase(final EndgameTablebase endings) {
+        tablebase = endings;
+    }
+
+    /**
+     * Gets the transposition table used by the previous search, for its counters
+     *
+     * @return The table, or null if the search runs without one
+     */
+    public TranspositionTable getTranspositionTable() {
+        return table;
+    }
+
+    /**
+     * Gets the number of threads the search runs on
+     *
+     * @return The thread count
+     */
+    public int getThreads() {
+        return threads;
+    }
+
+    /**
+     * Gets the evaluation this engine uses
+     *
+     * @return The evaluator
+     */
+    public Evaluator getEvaluator() {
+        return evaluator;
+    }
+
+    /**
+     * Searches the position and returns the best pit found in the time budget
+     *
+     * @param rules The game rules holding the position, left unchanged
+     * @return The pit to play
+     */
+    @Override
+    public int chooseMove(final GameRules rules) {
+        final long start = System.nanoTime();
+        final int legal = rules.getLegalMoves();
+        if (legal == 0) {
+            throw new IllegalStateException("No legal moves");
+        }
+        if (table == null && hashMegabytes > 0) {
+            table = new TranspositionTable(hashMegabytes);
+        }
+        deadline = start + timeBudgetNanos;
+        stopped = false;
+        completedDepth = 0;
+        lastScore = 0;
+        for (Worker worker : workers) {
+            worker.start(rules.copy());
+        }
+        int chosen = Integer.numberOfTrailingZeros(legal);
+        if (Integer.bitCount(legal) > 1) {
+            for (int depth = 1; depth <= maxDepth; depth++) {
+                final boolean reachedHorizon = searchRoot(depth, chosen);
+                if (stopped) {
+                    break;
+                }
+                chosen = bestMove;
+                lastScore = bestScore;
+                completedDepth = depth;
+                if (!reachedHorizon) {
+                    break; // every line reached the end of the game
+                }
+            }
+        }
+        lastNodes = 0;
+        for (Worker worker : workers) {
+            lastNodes += worker.nodes;
+            worker.board = null;
+        }
+        lastNanos = System.nanoTime() - start;
+        return chosen;
+    }
+
+    /*searches every root move to a depth, leaving the result in bestMove and bestScore*/
+    private boolean searchRoot(final int depth, final int firstMove) {
+        final Worker main = workers[0];
+        final int[] moves = main.moveBuffers[0];
+        final int count = main.orderMoves(0, main.board.getLegalMoves(), firstMove);
+        bestMove = moves[0];
+        bestScore = main.searchMove(moves[0], depth, -INFINITY, INFINITY);
+        boolean reachedHorizon = main.hitHorizon;
+        if (threads == 1 || stopped) {
+            for (int i = 1; i < count && !stopped; i++) {
+                final int score = main.searchMove(moves[i], depth, bestScore, INFINITY);
+                if (score > bestScore && !stopped) {
+                    bestScore = score;
+                    bestMove = moves[i];
+                }
+                reachedHorizon |= main.hitHorizon;
+            }
+            return reachedHorizon;
+        }
+        return searchRootParallel(depth, moves, count) || reachedHorizon;
+    }
+
+    /*shares the root moves after the first out over the pool, and the threads left over out as helpers*/
+    private boolean searchRootParallel(final int depth, final int[] moves, final int count) {
+        final AtomicInteger alpha = new AtomicInteger(bestScore);
+        final AtomicInteger rootLeft = new AtomicInteger(count - 1);
+        final BlockingQueue<Worker> idle = new ArrayBlockingQueue<>(threads);
+        for (Worker worker : workers) {
+            idle.add(worker);
+        }
+        final List<Callable<Boolean>> tasks = new ArrayList<>();
+        helpersDone = false;
+        for (int helper = 1; helper <= threads - (count - 1); helper++) {
+            final Worker worker = idle.poll();
+            final int helperDepth = Math.min(depth + (helper & 1), maxDepth);
+            final int skip = helper;
+            tasks.add(() -> {
+                try {
+                    worker.help(helperDepth, skip);
+                    return false;
+                } finally {
+                    worker.aborted = stopped; // only a finished search leaves the worker aborted
+                }
+            });
+        }
+        for (int i = 1; i < count; i++) {
+            final int pit = moves[i];
+            tasks.add(() -> {
+                final Worker worker = idle.take();
+                try {
+                    final int score = worker.searchMove(pit, depth, alpha.get(), INFINITY);
+                    if (!stopped) {
+                        recordRootScore(pit, score);
+                        alpha.accumulateAndGet(score, Math::max);
+                    }
+                    return worker.hitHorizon;
+                } finally {
+                    idle.add(worker);
+                    if (rootLeft.decrementAndGet() == 0) {
+                        helpersDone = true;
+                    }
+                }
+            });
+        }
+        boolean reachedHorizon = false;
+        try {
+            for (Future<Boolean> result : getPool().invokeAll(tasks)) {
+                reachedHorizon |= result.get();
+            }
+        } catch (InterruptedException err) {
+            Thread.currentThread().interrupt();
+            stopped = true;
+        } catch (ExecutionException err) {
+            throw new IllegalStateException(err.getCause());
+        }
+        return reachedHorizon;
+    }
+
+    private synchronized void recordRootScore(final int pit, final int score) {
+        if (score > bestScore) {
+            bestScore = score;
+            bestMove = pit;
+        }
+    }
+
+    private ForkJoinPool getPool() {
+        if (pool == null) {
+            pool = new ForkJoinPool(threads);
+        }
+        return pool;
+    }
+
+    /**
+     * Scores a finished game for the player to move, with each side's
+     * remaining stones going to that side's store as in GameRules.clearBoard
+     *
+     * @param rules The game rules holding the finished position
+     * @return The final store difference for the player to move
+     */
+    /* default */ static int finalScore(final GameRules rules) {
+        final int playerOne = rules.getStoreCount(1) + rules.getSideCount(1);
+        final int playerTwo = rules.getStoreCount(2) + rules.getSideCount(2);
+        int score = playerOne - playerTwo;
+        if (rules.getCurrentPlayer() == 2) {
+            score = -score;
+        }
+        return score;
+    }
+
+    /**
+     * Gets the depth of the last iteration the previous search finished
+     *
+     * @return The completed depth
+     */
+    public int getCompletedDepth() {
+        return completedDepth;
+    }
+
+    /**
+     * Gets the score of the previous search for the player who was to move
+     *
+     * @return The score of the chosen move
+     */
+    public int getScore() {
+        return lastScore;
+    }
+
+    /**
+     * Gets the number of positions visited by the previous search, over all threads
+     *
+     * @return The node count
+     */
+    public long getNodes() {
+        return lastNodes;
+    }
+
+    /**
+     * Gets the speed of the previous search, over all threads
+     *
+     * @return The positions visited per second
+     */
+    public long getNodesPerSecond() {
+        return lastNanos == 0 ? 0 : lastNodes * 1_000_000_000L / lastNanos;
+    }
+
+    /**
+     * The state one search thread needs: its own copy of the game, move buffers,
+     * history table and node count
+     */
+    private final class Worker {
+        private GameRules board;
+        private long nodes;
+        private boolean hitHorizon;
+        private boolean aborted;
+        private boolean helping;
+        private final int[][] history = new int[3][PITS + 1];
+        private final int[][] moveBuffers = new int[MAX_DEPTH + 1][SIDE];
+
+        private void start(final GameRules copy) {
+            board = copy;
+            nodes = 0;
+            aborted = false;
+            for (int[] scores : history) {
+                for (int pit = 0; pit < scores.length; pit++) {
+                    scores[pit] /= 2; // older searches count for less
+                }
+            }
+        }
+
+        /*plays one root move and searches the rest of the line from the root player's point of view*/
+        private int searchMove(final int pit, final int depth, final int alpha, final int beta) {
+            hitHorizon = false;
+            nodes++;
+            final int mover = board.getCurrentPlayer();
+            board.makeMove(pit);
+            final int score = searchChild(mover, depth - 1, alpha, beta, 1);
+            board.unmakeMove();
+            return score;
+        }
+
+        /*searches every root move as a Lazy SMP helper, starting from a different one than the
+          other helpers, until the root threads finish, leaving only table entries behind*/
+        private void help(final int depth, final int skip) {
+            helping = true;
+            try {
+                final int count = orderMoves(0, board.getLegalMoves(), 0);
+                int alpha = -INFINITY;
+                for (int i = 0; i < count && !aborted; i++) {
+                    final int score = searchMove(moveBuffers[0][(i + skip) % count], depth, alpha, INFINITY);
+                    if (!aborted) {
+                        alpha = Math.max(alpha, score);
+                    }
+                }
+            } finally {
+                helping = false;
+            }
+        }
+
+        /*searches the position after a move from the mover's point of view*/
+        private int searchChild(final int mover, final int depth, final int alpha, final int beta, final int ply) {
+            if (board.getCurrentPlayer() == mover) {
+                return search(depth, alpha, beta, ply);
+            }
+            return -search(depth, -beta, -alpha, ply);
+        }
+
+        private int search(final int depth, final int alphaIn, final int beta, final int ply) {
+            if ((++nodes & CHECK_INTERVAL) == 0) {
+                checkTime();
+            }
+            if (aborted) {
+                return 0;
+            }
+            if (board.isGameOver()) {
+                return finalScore(board);
+            }
+            final EndgameTablebase endings = tablebase;
+            if (endings != null) {
+                final int exact = endings.probe(board);
+                if (exact != EndgameTablebase.UNKNOWN) {
+                    return exact;
+                }
+            }
+            if (depth <= 0 || ply >= MAX_DEPTH) {
+                hitHorizon = true;
+                return evaluator.evaluate(board);
+            }
+            final TranspositionTable positions = table;
+            final long key = board.getPositionHash();
+            int tableMove = 0;
+            if (positions != null) {
+                final long entry = positions.probe(key);
+                if (entry != 0) {
+                    tableMove = TranspositionTable.getMove(entry);
+                    if (isCutoff(entry, depth, alphaIn, beta)) {
+                        hitHorizon = true; // the stored line may have stopped short of the end
+                        return TranspositionTable.getScore(entry);
+                    }
+                }
+            }
+            final int mover = board.getCurrentPlayer();
+            final int count = orderMoves(ply, board.getLegalMoves(), tableMove);
+            int alpha = alphaIn;
+            int best = -INFINITY;
+            int bestPit = 0;
+            for (int i = 0; i < count; i++) {
+                final int pit = moveBuffers[ply][i];
+                board.makeMove(pit);
+                final int score = searchChild(mover, depth - 1, alpha, beta, ply + 1);
+                board.unmakeMove();
+                if (aborted) {
+                    return 0;
+                }
+                if (score > best) {
+                    best = score;
+                    bestPit = pit;
+                    if (score > alpha) {
+                        alpha = score;
+                        if (alpha >= beta) {
+                            history[mover][pit] += depth * depth;
+                            break;
+                        }
+                    }
+                }
+            }
+            if (positions != null) {
+                int bound = TranspositionTable.EXACT;
+                if (best <= alphaIn) {
+                    bound = TranspositionTable.UPPER;
+                } else if (best >= beta) {
+                    bound = TranspositionTable.LOWER;
+                }
+                positions.store(key, best, depth, bound, bestPit);
+            }
+            return best;
+        }
+
+        /*whether a stored entry is deep enough and its bound tight enough to end the search here*/
+        private boolean isCutoff(final long entry, final int depth, final int alpha, final int beta) {
+            if (TranspositionTable.getDepth(entry) < depth) {
+                return false;
+            }
+            final int score = TranspositionTable.getScore(entry);
+            final int bound = TranspositionTable.getBound(entry);
+            return bound == TranspositionTable.EXACT
+                || bound == TranspositionTable.LOWER && score >= beta
+                || bound == TranspositionTable.UPPER && score <= alpha;
+        }
+
+        /*stops every thread once the budget is spent, as long as one iteration has finished,
+          and a helper once the root moves it is helping with are done*/
+        private void checkTime() {
+            if (stopped || helping && helpersDone) {
+                aborted = true;
+            } else if (completedDepth > 0 && System.nanoTime() - deadline > 0) {
+                stopped = true;
+                aborted = true;
+            }
+        }
+
+        /*fills the move buffer for a ply with the legal pits, best first, and returns how many there are*/
+        private int orderMoves(final int ply, final int legal, final int firstMove) {
+            final int[] moves = moveBuffers[ply];
+            final int[] scores = history[board.getCurrentPlayer()];
+            int count = 0;
+            int sorted = 0;
+            for (int remaining = legal; remaining != 0; remaining &= remaining - 1) {
+                final int pit = Integer.numberOfTrailingZeros(remaining);
+                moves[count] = pit;
+                if (pit == firstMove) {
+                    moves[count] = moves[0];
+                    moves[0] = pit;
+                    sorted = 1;
+                }
+                count++;
+            }
+            for (int i = sorted + 1; i < count; i++) {
+                final int pit = moves[i];
+                int j = i;
+                while (j > sorted && scores[moves[j - 1]] < scores[pit]) {
+                    moves[j] = moves[j - 1];
+                    j--;
+                }
+                moves[j] = pit;
+            }
+            return count;
+        }
+    }
+}
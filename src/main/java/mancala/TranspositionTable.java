@@ -0,0 +1,210 @@
+package mancala;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A fixed size table of searched positions keyed by GameRules.getPositionHash
+ *
+ * Entries are two longs in a single long array: the key XORed with the data, then the data.
+ * A reader only trusts an entry when the two words XOR back to its key, so threads can read
+ * and write the table at the same time without locks; a torn entry simply looks like a miss.
+ * Each key maps to a bucket of four entries, and a new entry replaces the same position or
+ * else the shallowest entry in the bucket.
+ * @see SearchEngine
+ */
+public class TranspositionTable {
+
+    /** Bound type for an exact score */
+    public static final int EXACT = 1;
+    /** Bound type for a score that is at least the stored value */
+    public static final int LOWER = 2;
+    /** Bound type for a score that is at most the stored value */
+    public static final int UPPER = 3;
+
+    private static final int BUCKET_ENTRIES = 4;
+    private static final int BUCKET_LONGS = BUCKET_ENTRIES * 2;
+    private static final long BYTES_PER_MEGABYTE = 1L << 20;
+    private static final int DEPTH_SHIFT = 32;
+    private static final int BOUND_SHIFT = 40;
+    private static final int MOVE_SHIFT = 42;
+    private static final long BYTE_MASK = 0xFF;
+    private static final long BOUND_MASK = 0x3;
+    private static final long MOVE_MASK = 0x1F;
+
+    private final long[] table;
+    private final long bucketMask;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder collisions = new LongAdder();
+
+    /**
+     * Creates a TranspositionTable
+     *
+     * @param megabytes The most memory the table may use, rounded down to a power of two buckets
+     */
+    public TranspositionTable(final int megabytes) {
+        if (megabytes < 1) {
+            throw new IllegalArgumentException("Table needs at least one megabyte");
+        }
+        final long buckets = Long.highestOneBit(megabytes * BYTES_PER_MEGABYTE / (BUCKET_LONGS * Long.BYTES));
+        if (buckets * BUCKET_LONGS > Integer.MAX_VALUE - BUCKET_LONGS) {
+            throw new IllegalArgumentException("Table is too large");
+        }
+        table = new long[(int) buckets * BUCKET_LONGS];
+        bucketMask = buckets - 1;
+    }
+
+    /**
+     * Looks up a position
+     *
+     * @param key The hash of the position
+     * @return The packed entry data, or 0 if the position is not in the table
+     */
+    public long probe(final long key) {
+        final int bucket = bucketOf(key);
+        for (int i = bucket; i < bucket + BUCKET_LONGS; i += 2) {
+            final long data = table[i + 1];
+            if (data != 0 && (table[i] ^ data) == key) {
+                hits.increment();
+                return data;
+            }
+        }
+        misses.increment();
+        return 0;
+    }
+
+    /**
+     * Stores the result of searching a position
+     *
+     * @param key   The hash of the position
+     * @param score The score found
+     * @param depth The depth searched, from 0 to 255
+     * @param bound EXACT, LOWER or UPPER
+     * @param move  The best pit found, or 0 if there is none
+     */
+    public void store(final long key, final int score, final int depth, final int bound, final int move) {
+        final long data = pack(score, depth, bound, move);
+        final int bucket = bucketOf(key);
+        int replace = bucket;
+        int shallowest = Integer.MAX_VALUE;
+        for (int i = bucket; i < bucket + BUCKET_LONGS; i += 2) {
+            final long old = table[i + 1];
+            if (old == 0 || (table[i] ^ old) == key) {
+                replace = i;
+                shallowest = -1;
+                break;
+            }
+            if (getDepth(old) < shallowest) {
+                shallowest = getDepth(old);
+                replace = i;
+            }
+        }
+        if (shallowest >= 0) {
+            if (shallowest > depth) {
+                return; // every entry in the bucket was searched deeper
+            }
+            collisions.increment();
+        }
+        table[replace] = key ^ data;
+        table[replace + 1] = data;
+    }
+
+    private int bucketOf(final long key) {
+        return (int) (key & bucketMask) * BUCKET_LONGS;
+    }
+
+    /*packs an entry so a used entry is never 0, because bound is never 0*/
+    private static long pack(final int score, final int depth, final int bound, final int move) {
+        return score & 0xFFFFFFFFL
+            | (depth & BYTE_MASK) << DEPTH_SHIFT
+            | (bound & BOUND_MASK) << BOUND_SHIFT
+            | (move & MOVE_MASK) << MOVE_SHIFT;
+    }
+
+    /**
+     * Gets the score from an entry
+     *
+     * @param data The entry returned by probe
+     * @return The stored score
+     */
+    public static int getScore(final long data) {
+        return (int) data;
+    }
+
+    /**
+     * Gets the depth from an entry
+     *
+     * @param data The entry returned by probe
+     * @return The depth the position was searched to
+     */
+    public static int getDepth(final long data) {
+        return (int) (data >>> DEPTH_SHIFT & BYTE_MASK);
+    }
+
+    /**
+     * Gets the bound type from an entry
+     *
+     * @param data The entry returned by probe
+     * @return EXACT, LOWER or UPPER
+     */
+    public static int getBound(final long data) {
+        return (int) (data >>> BOUND_SHIFT & BOUND_MASK);
+    }
+
+    /**
+     * Gets the best move from an entry
+     *
+     * @param data The entry returned by probe
+     * @return The best pit found, or 0 if there is none
+     */
+    public static int getMove(final long data) {
+        return (int) (data >>> MOVE_SHIFT & MOVE_MASK);
+    }
+
+    /**
+     * Removes every entry and resets the counters
+     */
+    public void clear() {
+        Arrays.fill(table, 0);
+        hits.reset();
+        misses.reset();
+        collisions.reset();
+    }
+
+    /**
+     * Gets the number of entries the table can hold
+     *
+     * @return The capacity in entries
+     */
+    public int getCapacity() {
+        return table.length / 2;
+    }
+
+    /**
+     * Gets the number of probes that found their position
+     *
+     * @return The hit count
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * Gets the number of probes that did not find their position
+     *
+     * @return The miss count
+     */
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * Gets the number of stores that overwrote a different position
+     *
+     * @return The collision count
+     */
+    public long getCollisions() {
+        return collisions.sum();
+    }
+}
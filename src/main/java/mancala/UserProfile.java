@@ -120,6 +120,22 @@ public class UserProfile implements Serializable {
         return ayoWins;
     }
 
+    /**
+     * Sets the number of games played and won, as when loading a saved profile
+     * 
+     * @param kalaPlays The number of Kala games played
+     * @param kalaWinCount The number of Kala games won
+     * @param ayoPlays The number of Ayo games played
+     * @param ayoWinCount The number of Ayo games won
+     */
+    /* default */ void setStats(final int kalaPlays, final int kalaWinCount, final int ayoPlays,
+                                final int ayoWinCount) {
+        kalaPlayed = kalaPlays;
+        kalaWins = kalaWinCount;
+        ayoPlayed = ayoPlays;
+        ayoWins = ayoWinCount;
+    }
+
     /**
      * Resets the number of games played and won to 0
      */
@@ -0,0 +1,133 @@
+package server;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import mancala.BoardSnapshot;
+
+/**
+ * Hosts many MancalaGame sessions at once without the GUI
+ *
+ * Sessions are kept in a concurrent map by id. Each session queues its own requests on a
+ * SerialExecutor, and all of them share one fixed pool of daemon threads, so the number of
+ * threads does not grow with the number of games and no lock is shared between sessions.
+ * A finished session stays registered until it is removed, so its result can still be read.
+ * @see GameSession
+ */
+public class GameServer implements AutoCloseable {
+
+    private static final long CLOSE_TIMEOUT_SECONDS = 10;
+
+    private final Map<Long, GameSession> sessions = new ConcurrentHashMap<>();
+    private final AtomicLong nextId = new AtomicLong(1);
+    private final ExecutorService pool;
+
+    /**
+     * Creates a GameServer with a pool thread for every processor
+     */
+    public GameServer() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Creates a GameServer
+     *
+     * @param threads The number of threads shared by all sessions, at least 1
+     */
+    public GameServer(final int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Need at least one thread");
+        }
+        final AtomicInteger count = new AtomicInteger();
+        pool = Executors.newFixedThreadPool(threads, task -> {
+            final Thread thread = new Thread(task, "mancala-session-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Opens a new session waiting for two players
+     *
+     * @param rules The rules to play with, BoardSnapshot.KALAH or BoardSnapshot.AYO
+     * @return The new session
+     */
+    public GameSession createSession(final int rules) {
+        if (rules != BoardSnapshot.KALAH && rules != BoardSnapshot.AYO) {
+            throw new IllegalArgumentException("Unknown rules " + rules);
+        }
+        final GameSession session = new GameSession(nextId.getAndIncrement(), rules, pool);
+        sessions.put(session.getId(), session);
+        return session;
+    }
+
+    /**
+     * Gets a session by id
+     *
+     * @param sessionId The id of the session
+     * @return The session
+     * @throws NoSuchSessionException If there is no session with that id
+     */
+    public GameSession getSession(final long sessionId) throws NoSuchSessionException {
+        final GameSession session = sessions.get(sessionId);
+        if (session == null) {
+            throw new NoSuchSessionException(sessionId);
+        }
+        return session;
+    }
+
+    /**
+     * Plays a pit in a session
+     *
+     * @param sessionId The id of the session
+     * @param seat      The seat of the player moving (1 or 2)
+     * @param pit       The pit to play
+     * @return A future holding the state after the move
+     * @see GameSession#move(int, int)
+     */
+    public CompletableFuture<SessionState> move(final long sessionId, final int seat, final int pit) {
+        final GameSession session = sessions.get(sessionId);
+        if (session == null) {
+            return CompletableFuture.failedFuture(new NoSuchSessionException(sessionId));
+        }
+        return session.move(seat, pit);
+    }
+
+    /**
+     * Removes a session, whether or not it has finished
+     *
+     * @param sessionId The id of the session
+     * @return Whether there was a session to remove
+     */
+    public boolean removeSession(final long sessionId) {
+        return sessions.remove(sessionId) != null;
+    }
+
+    /**
+     * Gets the number of sessions registered
+     *
+     * @return The session count
+     */
+    public int getSessionCount() {
+        return sessions.size();
+    }
+
+    /**
+     * Stops the pool once the requests already queued have been handled
+     */
+    @Override
+    public void close() {
+        pool.shutdown();
+        try {
+            pool.awaitTermination(CLOSE_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException err) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package server;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+import mancala.AyoRules;
+import mancala.BoardSnapshot;
+import mancala.GameNotOverException;
+import mancala.GameRules;
+import mancala.InvalidMoveException;
+import mancala.KalahRules;
+import mancala.MancalaGame;
+import mancala.Player;
+
+/**
+ * One live game on the server, with up to two players seated at it
+ *
+ * Every request is queued on the session's own SerialExecutor and answered with a future,
+ * so the MancalaGame is only touched by one thread at a time and needs no locking.
+ * Requests for the same session are handled in the order they arrive.
+ * @see GameServer
+ */
+public final class GameSession {
+
+    private final long id;
+    private final Executor executor;
+
+    // only touched by tasks on the executor, after the constructor hands the game over
+    private final MancalaGame game;
+    private final String[] names = new String[2];
+    private boolean finished;
+    private int winner;
+
+    /* default */ GameSession(final long sessionId, final int ruleNum, final Executor pool) {
+        id = sessionId;
+        executor = new SerialExecutor(pool);
+        final GameRules board = ruleNum == BoardSnapshot.AYO ? new AyoRules(true) : new KalahRules(true);
+        game = new MancalaGame(board);
+    }
+
+    /**
+     * Gets the id of the session
+     *
+     * @return The session id
+     */
+    public long getId() {
+        return id;
+    }
+
+    /**
+     * Seats a player at the first free seat. The game starts once both seats are taken.
+     *
+     * @param name The name of the player
+     * @return A future holding the seat (1 or 2), failing with InvalidMoveException if the game is full
+     */
+    public CompletableFuture<Integer> join(final String name) {
+        return submit(() -> {
+            final int seat = names[0] == null ? 1 : 2;
+            if (names[seat - 1] != null) {
+                throw new InvalidMoveException("Game is full");
+            }
+            names[seat - 1] = name;
+            if (seat == 2) {
+                game.setPlayers(new Player(names[0]), new Player(names[1]));
+            }
+            return seat;
+        });
+    }
+
+    /**
+     * Plays a pit for a seated player
+     *
+     * @param seat The seat of the player moving (1 or 2)
+     * @param pit  The pit to play
+     * @return A future holding the state after the move, failing with InvalidMoveException
+     *         if the game has not started or is over, it is not the seat's turn or the pit cannot be played
+     */
+    public CompletableFuture<SessionState> move(final int seat, final int pit) {
+        return submit(() -> {
+            checkPlaying();
+            if (game.getBoard().getCurrentPlayer() != seat) {
+                throw new InvalidMoveException("Not your turn");
+            }
+            game.move(pit);
+            if (game.isGameOver()) {
+                finish(winningSeat());
+            }
+            return state();
+        });
+    }
+
+    /**
+     * Ends the game with the other player as the winner
+     *
+     * @param seat The seat of the player resigning (1 or 2)
+     * @return A future holding the final state, failing with InvalidMoveException if the game is not being played
+     */
+    public CompletableFuture<SessionState> resign(final int seat) {
+        return submit(() -> {
+            checkPlaying();
+            if (seat != 1 && seat != 2) {
+                throw new InvalidMoveException("No seat " + seat);
+            }
+            finish(3 - seat);
+            return state();
+        });
+    }
+
+    /**
+     * Gets the state of the session once every earlier request has been handled
+     *
+     * @return A future holding the state
+     */
+    public CompletableFuture<SessionState> getState() {
+        return submit(this::state);
+    }
+
+    private void checkPlaying() throws InvalidMoveException {
+        if (names[1] == null) {
+            throw new InvalidMoveException("Waiting for a second player");
+        }
+        if (finished) {
+            throw new InvalidMoveException("Game is over");
+        }
+    }
+
+    private void finish(final int winningSeat) {
+        finished = true;
+        winner = winningSeat;
+    }
+
+    private int winningSeat() throws GameNotOverException {
+        final Player best = game.getWinner();
+        if (best == null) {
+            return 0;
+        }
+        return best == game.getPlayer(1) ? 1 : 2;
+    }
+
+    private SessionState state() {
+        final BoardSnapshot position = BoardSnapshot.of(game.getBoard());
+        final int seats = names[0] == null ? 0 : (names[1] == null ? 1 : 2);
+        return new SessionState(id, position, seats, finished, winner);
+    }
+
+    /*runs a task on the session's executor, passing its result or failure to the future*/
+    private <T> CompletableFuture<T> submit(final Callable<T> task) {
+        final CompletableFuture<T> result = new CompletableFuture<>();
+        executor.execute(() -> {
+            try {
+                result.complete(task.call());
+            } catch (Exception err) {
+                result.completeExceptionally(err);
+            }
+        });
+        return result;
+    }
+}
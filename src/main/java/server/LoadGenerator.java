@@ -0,0 +1,257 @@
+package server;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Plays many games against a ProtocolServer at once and measures how long moves take
+ *
+ * Every connection joins a Kalah game, and the server pairs them up as they arrive. Whenever
+ * a connection is told it is its turn it plays a random pit holding stones, and the time from
+ * sending MOVE to reading the STATE that answers it is recorded. All connections are driven by
+ * one Selector, so thousands of them can be opened from a single thread.
+ * @see ProtocolServer
+ */
+public class LoadGenerator {
+
+    private static final int DEFAULT_CONNECTIONS = 2000;
+    private static final int PITS_PER_SIDE = 6;
+    private static final long STALL_NANOS = TimeUnit.SECONDS.toNanos(10);
+
+    private final InetSocketAddress address;
+    private final int connectionCount;
+    private final SplittableRandom random;
+    private long[] latencies = new long[1024];
+    private int moves;
+    private int gamesFinished;
+    private int errors;
+    private int open;
+
+    /**
+     * Creates a LoadGenerator
+     *
+     * @param host        The host the server runs on
+     * @param port        The port the server listens on
+     * @param connections The number of connections to open, two for every game
+     * @param seed        The seed choosing the moves
+     */
+    public LoadGenerator(final String host, final int port, final int connections, final long seed) {
+        if (connections < 2 || connections % 2 != 0) {
+            throw new IllegalArgumentException("Need an even number of connections");
+        }
+        address = new InetSocketAddress(host, port);
+        connectionCount = connections;
+        random = new SplittableRandom(seed);
+    }
+
+    /**
+     * Opens every connection and plays until all of their games have finished,
+     * or until nothing has been heard for ten seconds
+     *
+     * @return The round trip times of the moves in nanoseconds, sorted
+     * @throws IOException If a connection could not be opened
+     */
+    public long[] run() throws IOException {
+        try (Selector selector = Selector.open()) {
+            for (int i = 0; i < connectionCount; i++) {
+                final SocketChannel channel = SocketChannel.open(address);
+                channel.socket().setTcpNoDelay(true);
+                final Client client = new Client(channel);
+                client.send("JOIN kalah load" + i);
+                channel.configureBlocking(false);
+                channel.register(selector, SelectionKey.OP_READ, client);
+            }
+            open = connectionCount;
+            long lastHeard = System.nanoTime();
+            while (open > 0 && System.nanoTime() - lastHeard < STALL_NANOS) {
+                if (selector.select(TimeUnit.NANOSECONDS.toMillis(STALL_NANOS)) == 0) {
+                    continue;
+                }
+                lastHeard = System.nanoTime();
+                final Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    final SelectionKey key = keys.next();
+                    keys.remove();
+                    ((Client) key.attachment()).read(key);
+                }
+            }
+            for (SelectionKey key : selector.keys()) {
+                key.channel().close();
+            }
+        }
+        final long[] sorted = Arrays.copyOf(latencies, moves);
+        Arrays.sort(sorted);
+        return sorted;
+    }
+
+    /**
+     * Gets the number of moves answered during the last run
+     *
+     * @return The move count
+     */
+    public int getMoveCount() {
+        return moves;
+    }
+
+    /**
+     * Gets the number of games played to the end during the last run, counted by both players
+     *
+     * @return The number of connections that saw their game finish
+     */
+    public int getGamesFinished() {
+        return gamesFinished;
+    }
+
+    /**
+     * Gets the number of ERROR replies read during the last run
+     *
+     * @return The error count
+     */
+    public int getErrorCount() {
+        return errors;
+    }
+
+    /**
+     * Gets a percentile of sorted values
+     *
+     * @param sorted  The values in ascending order
+     * @param percent The percentile, from 0 to 100
+     * @return The smallest value at least that percent of the values are no greater than, or 0 if there are none
+     */
+    public static long percentile(final long[] sorted, final double percent) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        final int rank = (int) Math.ceil(percent / 100 * sorted.length);
+        return sorted[Math.max(0, Math.min(sorted.length, rank) - 1)];
+    }
+
+    private void record(final long nanos) {
+        if (moves == latencies.length) {
+            latencies = Arrays.copyOf(latencies, moves * 2);
+        }
+        latencies[moves++] = nanos;
+    }
+
+    /**
+     * Runs the generator from the command line and prints the round trip percentiles
+     *
+     * @param args Optionally the number of connections, the host and the port
+     * @throws IOException If a connection could not be opened
+     */
+    public static void main(final String[] args) throws IOException {
+        final int connections = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_CONNECTIONS;
+        final String host = args.length > 1 ? args[1] : "localhost";
+        final int port = args.length > 2 ? Integer.parseInt(args[2]) : ProtocolServer.DEFAULT_PORT;
+        final LoadGenerator generator = new LoadGenerator(host, port, connections, System.nanoTime());
+        final long start = System.nanoTime();
+        final long[] sorted = generator.run();
+        final double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("connections=%d games=%d moves=%d errors=%d time=%.2fs moves/s=%.0f%n",
+            connections, generator.getGamesFinished() / 2, generator.getMoveCount(), generator.getErrorCount(),
+            seconds, generator.getMoveCount() / seconds);
+        System.out.printf("round trip us: p50=%d p90=%d p99=%d p99.9=%d max=%d%n",
+            micros(percentile(sorted, 50)), micros(percentile(sorted, 90)), micros(percentile(sorted, 99)),
+            micros(percentile(sorted, 99.9)), micros(percentile(sorted, 100)));
+    }
+
+    private static long micros(final long nanos) {
+        return TimeUnit.NANOSECONDS.toMicros(nanos);
+    }
+
+    /**
+     * One player's connection: the part of a line read so far, its seat, and when its move was sent
+     */
+    private final class Client {
+        private final SocketChannel channel;
+        private final ByteBuffer input = ByteBuffer.allocate(512);
+        private final int[] pits = new int[2 * PITS_PER_SIDE];
+        private int seat;
+        private long sentAt;
+
+        private Client(final SocketChannel socket) {
+            channel = socket;
+        }
+
+        private void send(final String line) throws IOException {
+            final ByteBuffer buffer = ByteBuffer.wrap((line + "\n").getBytes(StandardCharsets.US_ASCII));
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+
+        private void read(final SelectionKey key) throws IOException {
+            if (channel.read(input) < 0) {
+                finish(key);
+                return;
+            }
+            input.flip();
+            int start = 0;
+            for (int i = 0; i < input.limit(); i++) {
+                if (input.get(i) == '\n') {
+                    if (!line(new String(input.array(), start, i - start, StandardCharsets.US_ASCII))) {
+                        finish(key);
+                        return;
+                    }
+                    start = i + 1;
+                }
+            }
+            input.position(start);
+            input.compact();
+        }
+
+        private void finish(final SelectionKey key) throws IOException {
+            key.cancel();
+            channel.close();
+            open--;
+        }
+
+        /*handles one reply, returning false once the connection is finished with*/
+        private boolean line(final String line) throws IOException {
+            final String[] words = line.split(" ");
+            switch (words[0]) {
+                case "JOINED":
+                    seat = Integer.parseInt(words[2]);
+                    return true;
+                case "STATE":
+                    if (sentAt != 0) {
+                        record(System.nanoTime() - sentAt);
+                        sentAt = 0;
+                    }
+                    if ("over".equals(words[4])) {
+                        gamesFinished++;
+                        return false;
+                    }
+                    if (Integer.parseInt(words[5]) == seat) {
+                        play(words[2]);
+                    }
+                    return true;
+                default:
+                    errors++;
+                    return false;
+            }
+        }
+
+        private void play(final String counts) throws IOException {
+            final String[] values = counts.split(",");
+            final int first = seat == 1 ? 0 : PITS_PER_SIDE;
+            int choices = 0;
+            for (int i = first; i < first + PITS_PER_SIDE; i++) {
+                if (Integer.parseInt(values[i]) > 0) {
+                    pits[choices++] = i + 1;
+                }
+            }
+            sentAt = System.nanoTime();
+            send("MOVE " + pits[random.nextInt(choices)]);
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package server;
+
+/**
+ * A class that extends the exception class to specify a game session does not exist
+ */
+public class NoSuchSessionException extends Exception {
+    private static final long serialVersionUID = -2604311871598212447L;
+
+    /**
+     * Creates a new NoSuchSessionException object
+     *
+     * @param sessionId The id that was not found
+     */
+    public NoSuchSessionException(final long sessionId) {
+        super("No game " + sessionId);
+    }
+}
@@ -0,0 +1,451 @@
+package server;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import mancala.BoardSnapshot;
+
+/**
+ * Serves games from a GameServer over TCP with a line based text protocol
+ *
+ * One thread runs a Selector over every connection, so connections cost a buffer rather
+ * than a thread. Requests are handed to the sessions, and their replies are queued back to
+ * the selector thread, which is the only thread that reads or writes sockets.
+ *
+ * Each line from a client is one command:
+ * <pre>
+ * JOIN [kalah|ayo] [name]  wait for, or pair with, another player   JOINED id seat
+ * MOVE pit                 play a pit                               STATE ... to both players
+ * STATE                    ask for the board                        STATE ...
+ * RESIGN                   give up the game                         STATE ... to both players
+ * </pre>
+ * A STATE line is the session id, the pit counts from pit 1 up, the two stores, then either
+ * "turn" and the player to move or "over" and the winner (0 for a draw), as in
+ * "STATE 3 4,4,0,5,5,5,4,4,4,4,4,4 1,0 turn 1". Anything that fails is answered with
+ * "ERROR" and a message. Once a game is over the same connection can JOIN another.
+ * Closing a connection in the middle of a game resigns it, and a client that stops
+ * reading is disconnected once 64 KiB of replies are waiting for it.
+ * @see LoadGenerator
+ */
+public class ProtocolServer implements AutoCloseable {
+
+    /** The port served when none is given */
+    public static final int DEFAULT_PORT = 4242;
+
+    private static final int BACKLOG = 1024;
+    private static final int MAX_LINE = 256;
+    private static final int BUFFER_SIZE = 512;
+    private static final int MAX_QUEUED = 64 * 1024; // bytes of replies a client may leave unread before it is dropped
+
+    private final GameServer games;
+    private final Selector selector;
+    private final ServerSocketChannel listener;
+    private final Queue<Connection> pendingWrites = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean wakeupPending = new AtomicBoolean();
+    private final Map<Integer, Connection> waiting = new HashMap<>(); // by rules, selector thread only
+    private Thread loop;
+    private volatile boolean closing;
+
+    /**
+     * Creates a ProtocolServer listening on a port of the local machine
+     *
+     * @param gameServer The server hosting the sessions
+     * @param port       The port to listen on, or 0 for any free port
+     * @throws IOException If the port could not be opened
+     */
+    public ProtocolServer(final GameServer gameServer, final int port) throws IOException {
+        games = gameServer;
+        selector = Selector.open();
+        listener = ServerSocketChannel.open();
+        listener.bind(new InetSocketAddress(port), BACKLOG);
+        listener.configureBlocking(false);
+        listener.register(selector, SelectionKey.OP_ACCEPT);
+    }
+
+    /**
+     * Gets the port the server is listening on
+     *
+     * @return The port number
+     */
+    public int getPort() {
+        return listener.socket().getLocalPort();
+    }
+
+    /**
+     * Starts serving on a new thread
+     */
+    public void start() {
+        loop = new Thread(this::serve, "mancala-protocol");
+        loop.setDaemon(true);
+        loop.start();
+    }
+
+    private void serve() {
+        try {
+            while (!closing) {
+                selector.select();
+                wakeupPending.set(false);
+                flushPending();
+                final Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    final SelectionKey key = keys.next();
+                    keys.remove();
+                    handle(key);
+                }
+            }
+        } catch (IOException | ClosedSelectorException err) {
+            if (!closing) {
+                System.err.println("Stopped serving: " + err);
+            }
+        }
+    }
+
+    private void handle(final SelectionKey key) throws IOException {
+        if (!key.isValid()) {
+            return;
+        }
+        if (key.isAcceptable()) {
+            accept();
+            return;
+        }
+        final Connection connection = (Connection) key.attachment();
+        try {
+            if (key.isReadable()) {
+                connection.read();
+            }
+            if (key.isValid() && key.isWritable()) {
+                connection.flush();
+            }
+        } catch (IOException err) {
+            connection.close();
+        }
+    }
+
+    /*takes a waiting connection, dropping just that one if it cannot be set up, such as when
+      the process is out of file descriptors, so the other clients are still served*/
+    private void accept() {
+        final SocketChannel channel;
+        try {
+            channel = listener.accept();
+        } catch (IOException err) {
+            System.err.println("Could not accept a connection: " + err);
+            return;
+        }
+        if (channel == null) {
+            return;
+        }
+        try {
+            channel.configureBlocking(false);
+            channel.socket().setTcpNoDelay(true);
+            final SelectionKey connectionKey = channel.register(selector, SelectionKey.OP_READ);
+            connectionKey.attach(new Connection(connectionKey));
+        } catch (IOException err) {
+            System.err.println("Could not set up a connection: " + err);
+            try {
+                channel.close();
+            } catch (IOException closeErr) {
+                // already gone
+            }
+        }
+    }
+
+    /*writes the replies queued by session threads since the last wakeup, which is only
+      asked for again once this has started, so a burst of replies costs one wakeup*/
+    private void flushPending() {
+        Connection connection;
+        while ((connection = pendingWrites.poll()) != null) {
+            try {
+                connection.flush();
+            } catch (IOException err) {
+                connection.close();
+            }
+        }
+    }
+
+    private void command(final Connection connection, final String line) {
+        final String[] words = line.trim().split("\\s+");
+        switch (words[0].toUpperCase(Locale.ROOT)) {
+            case "JOIN":
+                join(connection, words);
+                break;
+            case "MOVE":
+                move(connection, words);
+                break;
+            case "STATE":
+                if (connection.session == null) {
+                    connection.send("ERROR Not in a game");
+                } else {
+                    connection.session.getState().whenComplete((state, err) -> reply(connection, state, err));
+                }
+                break;
+            case "RESIGN":
+                if (connection.session == null) {
+                    connection.send("ERROR Not in a game");
+                } else {
+                    connection.session.resign(connection.seat).whenComplete((state, err) -> push(connection, state, err));
+                }
+                break;
+            default:
+                connection.send("ERROR Unknown command " + words[0]);
+        }
+    }
+
+    private void join(final Connection connection, final String[] words) {
+        connection.leaveFinishedGame();
+        if (connection.session != null) {
+            connection.send("ERROR Already in a game");
+            return;
+        }
+        final int rules = words.length > 1 && "ayo".equalsIgnoreCase(words[1]) ? BoardSnapshot.AYO : BoardSnapshot.KALAH;
+        final String name = words.length > 2 ? words[2] : "player";
+        Connection opponent = waiting.remove(rules);
+        if (opponent != null && !opponent.isOpen()) {
+            opponent = null;
+        }
+        final GameSession session = opponent == null ? games.createSession(rules) : opponent.session;
+        connection.session = session;
+        if (opponent == null) {
+            connection.seat = 1;
+            waiting.put(rules, connection);
+        } else {
+            connection.seat = 2;
+            connection.opponent = opponent;
+            opponent.opponent = connection;
+        }
+        session.join(name).whenComplete((seat, err) -> {
+            if (err != null) {
+                connection.send("ERROR " + err.getMessage());
+                return;
+            }
+            connection.send("JOINED " + session.getId() + " " + seat);
+        });
+        if (opponent != null) {
+            session.getState().whenComplete((state, err) -> push(connection, state, err));
+        }
+    }
+
+    private void move(final Connection connection, final String[] words) {
+        if (connection.session == null) {
+            connection.send("ERROR Not in a game");
+            return;
+        }
+        final int pit;
+        try {
+            pit = Integer.parseInt(words.length > 1 ? words[1] : "");
+        } catch (NumberFormatException err) {
+            connection.send("ERROR MOVE needs a pit number");
+            return;
+        }
+        connection.session.move(connection.seat, pit).whenComplete((state, err) -> push(connection, state, err));
+    }
+
+    /*sends a state to the one connection that asked, or the error*/
+    private void reply(final Connection connection, final SessionState state, final Throwable err) {
+        if (err != null) {
+            connection.send("ERROR " + err.getMessage());
+        } else {
+            connection.send("STATE " + state);
+        }
+    }
+
+    /*sends a new state to both players, or the error to the one that caused it, and once the
+      game is finished lets both connections join another*/
+    private void push(final Connection connection, final SessionState state, final Throwable err) {
+        final Connection opponent = connection.opponent;
+        if (err == null && state.isFinished()) {
+            games.removeSession(state.getId());
+            connection.gameOver = true; // set before the state is sent, so the next command sees it
+            if (opponent != null) {
+                opponent.gameOver = true;
+            }
+        }
+        reply(connection, state, err);
+        if (err == null && opponent != null) {
+            opponent.send("STATE " + state);
+        }
+    }
+
+    /**
+     * Stops serving and closes every connection
+     *
+     * @throws IOException If the listening socket could not be closed
+     */
+    @Override
+    public void close() throws IOException {
+        closing = true;
+        if (loop != null) {
+            selector.wakeup(); // the keys are only touched by the selector thread, so let it stop first
+            try {
+                loop.join();
+            } catch (InterruptedException err) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        for (SelectionKey key : selector.keys()) {
+            key.channel().close();
+        }
+        selector.close();
+    }
+
+    /**
+     * Serves games from the command line
+     *
+     * @param args Optionally the port to listen on and the number of session threads
+     * @throws IOException          If the port could not be opened
+     * @throws InterruptedException If the main thread is interrupted while serving
+     */
+    public static void main(final String[] args) throws IOException, InterruptedException {
+        final int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        final GameServer gameServer = args.length > 1 ? new GameServer(Integer.parseInt(args[1])) : new GameServer();
+        final ProtocolServer server = new ProtocolServer(gameServer, port);
+        System.out.println("Serving games on port " + server.getPort());
+        server.start();
+        server.loop.join();
+    }
+
+    /**
+     * One client socket: its unfinished input line, its queued output, and its seat in a game
+     */
+    private final class Connection {
+        private final SelectionKey key;
+        private final SocketChannel channel;
+        private final ByteBuffer input = ByteBuffer.allocate(BUFFER_SIZE);
+        private final Queue<ByteBuffer> outbox = new ConcurrentLinkedQueue<>();
+        private final Queue<ByteBuffer> writing = new ArrayDeque<>(); // selector thread only
+        private final AtomicInteger queued = new AtomicInteger(); // bytes in outbox and writing
+        private volatile boolean overflowed;
+        private GameSession session;     // set on the selector thread before any session task can see it
+        private int seat;
+        private volatile Connection opponent;
+        private volatile boolean gameOver; // set by a session thread once the game has finished
+        private volatile boolean closed;
+
+        private Connection(final SelectionKey selectionKey) {
+            key = selectionKey;
+            channel = (SocketChannel) selectionKey.channel();
+        }
+
+        private boolean isOpen() {
+            return !closed;
+        }
+
+        /*forgets a finished game on the selector thread, so the connection can join another;
+          until then MOVE and STATE are still answered by the finished session*/
+        private void leaveFinishedGame() {
+            if (gameOver) {
+                gameOver = false;
+                session = null;
+                seat = 0;
+                opponent = null;
+            }
+        }
+
+        /*queues a line from any thread and wakes the selector to write it, or to close the
+          connection instead if the client has left too many replies unread*/
+        private void send(final String line) {
+            if (closed || overflowed) {
+                return;
+            }
+            final byte[] bytes = (line + "\n").getBytes(StandardCharsets.UTF_8);
+            if (queued.addAndGet(bytes.length) > MAX_QUEUED) {
+                overflowed = true;
+            } else {
+                outbox.add(ByteBuffer.wrap(bytes));
+            }
+            pendingWrites.add(this);
+            if (!wakeupPending.getAndSet(true)) {
+                selector.wakeup();
+            }
+        }
+
+        private void read() throws IOException {
+            if (channel.read(input) < 0) {
+                close();
+                return;
+            }
+            input.flip();
+            int start = 0;
+            for (int i = input.position(); i < input.limit(); i++) {
+                if (input.get(i) == '\n') {
+                    final String line = new String(input.array(), start, i - start, StandardCharsets.UTF_8);
+                    if (!line.isBlank()) {
+                        command(this, line);
+                    }
+                    start = i + 1;
+                }
+            }
+            input.position(start);
+            input.compact();
+            if (input.position() > MAX_LINE) {
+                send("ERROR Line too long");
+                input.clear();
+            }
+        }
+
+        private void flush() throws IOException {
+            if (closed) {
+                return;
+            }
+            if (overflowed) {
+                close();
+                return;
+            }
+            ByteBuffer next;
+            while ((next = outbox.poll()) != null) {
+                writing.add(next);
+            }
+            while (!writing.isEmpty()) {
+                final ByteBuffer buffer = writing.peek();
+                channel.write(buffer);
+                if (buffer.hasRemaining()) {
+                    key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+                    return;
+                }
+                queued.addAndGet(-writing.poll().capacity());
+            }
+            if (key.isValid()) {
+                key.interestOps(SelectionKey.OP_READ);
+            }
+        }
+
+        /*closes the socket, resigning a game still being played or giving up a seat still waiting*/
+        private void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            leaveFinishedGame(); // nothing to resign once the game is over
+            key.cancel();
+            try {
+                channel.close();
+            } catch (IOException err) {
+                // already gone
+            }
+            if (session == null) {
+                return;
+            }
+            if (opponent == null) {
+                waiting.values().remove(this);
+                games.removeSession(session.getId());
+                return;
+            }
+            session.resign(seat).thenAccept(state -> push(this, state, null));
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package server;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Runs tasks one at a time, in the order they were submitted, on a pool shared with other sessions
+ *
+ * Each GameSession owns one of these, which makes it a small actor: its game is only ever
+ * touched by one thread at a time without any lock, and a busy session never holds up the
+ * others because it gives its pool thread back after a batch of tasks. An idle session costs
+ * a queue and a flag, not a thread, so tens of thousands fit on one JVM.
+ */
+final class SerialExecutor implements Executor {
+
+    private static final int BATCH = 32; // tasks run before giving the pool thread to another session
+
+    private final Executor pool;
+    private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+
+    /* default */ SerialExecutor(final Executor sharedPool) {
+        pool = sharedPool;
+    }
+
+    @Override
+    public void execute(final Runnable task) {
+        tasks.add(task);
+        try {
+            schedule();
+        } catch (RejectedExecutionException err) {
+            tasks.remove(task); // the caller is told it was not accepted, so it must not run later
+            throw err;
+        }
+    }
+
+    /*hands a drain to the pool unless one is already waiting or running, and if the pool
+    refuses it clears the flag so the next task tries again rather than queueing forever*/
+    private void schedule() {
+        if (!tasks.isEmpty() && scheduled.compareAndSet(false, true)) {
+            try {
+                pool.execute(this::drain);
+            } catch (RejectedExecutionException err) {
+                scheduled.set(false);
+                throw err;
+            }
+        }
+    }
+
+    /*runs queued tasks until the batch is used up or one throws, then schedules the rest again*/
+    private void drain() {
+        try {
+            Runnable task;
+            for (int run = 0; run < BATCH && (task = tasks.poll()) != null; run++) {
+                task.run();
+            }
+        } finally {
+            scheduled.set(false);
+            schedule();
+        }
+    }
+}
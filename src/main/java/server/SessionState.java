@@ -0,0 +1,93 @@
+package server;
+
+import mancala.BoardSnapshot;
+
+/**
+ * An immutable view of a game session at one moment, safe to hand to any thread
+ *
+ * @see GameSession
+ */
+public final class SessionState {
+
+    private final long id;
+    private final BoardSnapshot position;
+    private final int seatsTaken;
+    private final boolean finished;
+    private final int winner;
+
+    /* default */ SessionState(final long sessionId, final BoardSnapshot snapshot, final int seats,
+                               final boolean over, final int winningSeat) {
+        id = sessionId;
+        position = snapshot;
+        seatsTaken = seats;
+        finished = over;
+        winner = winningSeat;
+    }
+
+    /**
+     * Gets the id of the session
+     *
+     * @return The session id
+     */
+    public long getId() {
+        return id;
+    }
+
+    /**
+     * Gets the position on the board
+     *
+     * @return The snapshot of the board
+     */
+    public BoardSnapshot getPosition() {
+        return position;
+    }
+
+    /**
+     * Gets how many players have joined
+     *
+     * @return The number of seats taken (0 to 2)
+     */
+    public int getSeatsTaken() {
+        return seatsTaken;
+    }
+
+    /**
+     * Gets whether the game has ended, by an empty side or a resignation
+     *
+     * @return True if no more moves can be made
+     */
+    public boolean isFinished() {
+        return finished;
+    }
+
+    /**
+     * Gets who won a finished game
+     *
+     * @return The winning seat (1 or 2), or 0 for a draw or a game still being played
+     */
+    public int getWinner() {
+        return winner;
+    }
+
+    /**
+     * Returns a one line description of the session: its id, the pit counts from pit 1 up,
+     * the two stores, the player to move, and the winner once it has finished
+     *
+     * @return The description
+     */
+    @Override
+    public String toString() {
+        final StringBuilder line = new StringBuilder();
+        line.append(id);
+        for (int pit = 1; pit <= 2 * position.getPitsPerSide(); pit++) {
+            line.append(pit == 1 ? " " : ",").append(position.getNumStones(pit));
+        }
+        line.append(' ').append(position.getStoreCount(1)).append(',').append(position.getStoreCount(2));
+        if (finished) {
+            line.append(" over ").append(winner);
+        } else {
+            line.append(" turn ").append(position.getCurrentPlayer());
+        }
+        return line.toString();
+    }
+}
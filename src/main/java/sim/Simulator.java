@@ -0,0 +1,264 @@
+package sim;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import mancala.AyoRules;
+import mancala.BoardGeometry;
+import mancala.ComputerPlayer;
+import mancala.GameNotOverException;
+import mancala.GameRules;
+import mancala.GreedyStrategy;
+import mancala.InvalidMoveException;
+import mancala.KalahRules;
+import mancala.MancalaGame;
+import mancala.MoveStrategy;
+import mancala.Player;
+import mancala.RandomStrategy;
+import mancala.SearchEngine;
+
+/**
+ * Plays batches of games between computer strategies without the GUI
+ *
+ * Each game is a MancalaGame on a packed board with a ComputerPlayer on each side,
+ * played to the end with moveComputerPlayer. Games are shared out over a fixed number
+ * of threads and every result is written as soon as its game ends, one CSV row or JSON
+ * object per line. The throughput is printed to standard error when all games are done.
+ *
+ * Usage: Simulator [--games N] [--rules kalah|ayo] [--p1 STRATEGY] [--p2 STRATEGY]
+ *        [--pits N] [--stones N] [--threads N] [--format csv|jsonl] [--out FILE] [--depth N] [--seed N]
+ * where STRATEGY is random, greedy or search.
+ * @see mancala.MoveStrategy
+ */
+public final class Simulator {
+
+    private static final String CSV_HEADER = "game,rules,player1,player2,winner,store1,store2,moves,micros";
+    private static final long NANOS_PER_MICRO = 1000L;
+    private static final int SEARCH_BUDGET_MILLIS = 60_000; // depth limits the search, not time
+    private static final int SEARCH_HASH_MEGABYTES = 1;
+    private static final int MAX_DEPTH = 64;
+
+    private int games = 100;
+    private String rules = "kalah";
+    private String playerOne = "greedy";
+    private String playerTwo = "random";
+    private int pits = BoardGeometry.STANDARD.getPitsPerSide();
+    private int stones = BoardGeometry.STANDARD.getStartStones();
+    private int threads = Runtime.getRuntime().availableProcessors();
+    private boolean json;
+    private Path out;
+    private int depth = 4;
+    private long seed = System.nanoTime();
+
+    private Writer writer;
+    private final AtomicInteger nextGame = new AtomicInteger();
+
+    private Simulator() {
+    }
+
+    /**
+     * Runs a batch of games from the command line
+     *
+     * @param args The options described in the class comment
+     */
+    public static void main(final String[] args) {
+        final Simulator simulator = new Simulator();
+        try {
+            simulator.parse(args);
+        } catch (IllegalArgumentException err) {
+            System.err.println(err.getMessage());
+            System.err.println("Usage: Simulator [--games N] [--rules kalah|ayo] [--p1 random|greedy|search]"
+                + " [--p2 random|greedy|search] [--pits N] [--stones N] [--threads N] [--format csv|jsonl] [--out FILE]"
+                + " [--depth N] [--seed N]");
+            System.exit(1);
+        }
+        try {
+            simulator.run();
+        } catch (IOException err) {
+            System.err.println("Could not write results: " + err.getMessage());
+            System.exit(1);
+        }
+    }
+
+    private void parse(final String[] args) {
+        for (int i = 0; i < args.length; i += 2) {
+            if (i + 1 >= args.length) {
+                throw new IllegalArgumentException("Missing value for " + args[i]);
+            }
+            final String value = args[i + 1];
+            switch (args[i]) {
+                case "--games":
+                    games = parsePositive(args[i], value);
+                    break;
+                case "--rules":
+                    rules = checkChoice(args[i], value, "kalah", "ayo");
+                    break;
+                case "--p1":
+                    playerOne = checkChoice(args[i], value, "random", "greedy", "search");
+                    break;
+                case "--p2":
+                    playerTwo = checkChoice(args[i], value, "random", "greedy", "search");
+                    break;
+                case "--pits":
+                    pits = parsePositive(args[i], value);
+                    if (pits > BoardGeometry.MAX_PITS_PER_SIDE) {
+                        throw new IllegalArgumentException("--pits must be at most " + BoardGeometry.MAX_PITS_PER_SIDE);
+                    }
+                    break;
+                case "--stones":
+                    stones = parsePositive(args[i], value);
+                    break;
+                case "--threads":
+                    threads = parsePositive(args[i], value);
+                    break;
+                case "--format":
+                    json = "jsonl".equals(checkChoice(args[i], value, "csv", "jsonl"));
+                    break;
+                case "--out":
+                    out = Path.of(value);
+                    break;
+                case "--depth":
+                    depth = parsePositive(args[i], value);
+                    if (depth > MAX_DEPTH) {
+                        throw new IllegalArgumentException("--depth must be at most " + MAX_DEPTH);
+                    }
+                    break;
+                case "--seed":
+                    seed = parseNumber(args[i], value);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+    }
+
+    private static long parseNumber(final String option, final String value) {
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException err) {
+            throw new IllegalArgumentException(option + " needs a number, not " + value);
+        }
+    }
+
+    private static int parsePositive(final String option, final String value) {
+        final long number = parseNumber(option, value);
+        if (number < 1 || number > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException(option + " must be at least 1");
+        }
+        return (int) number;
+    }
+
+    private static String checkChoice(final String option, final String value, final String... choices) {
+        for (String choice : choices) {
+            if (choice.equals(value)) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException(option + " must be one of " + String.join(", ", choices));
+    }
+
+    private void run() throws IOException {
+        writer = new BufferedWriter(out == null
+            ? new OutputStreamWriter(System.out, StandardCharsets.UTF_8)
+            : Files.newBufferedWriter(out, StandardCharsets.UTF_8));
+        if (!json) {
+            writer.write(CSV_HEADER);
+            writer.write('\n');
+        }
+        final long start = System.nanoTime();
+        final ExecutorService pool = Executors.newFixedThreadPool(threads);
+        final List<Callable<Integer>> tasks = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            tasks.add(this::playGames);
+        }
+        int played = 0;
+        try {
+            for (Future<Integer> result : pool.invokeAll(tasks)) {
+                played += result.get();
+            }
+        } catch (InterruptedException err) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException err) {
+            if (err.getCause() instanceof IOException) {
+                throw (IOException) err.getCause();
+            }
+            throw new IllegalStateException(err.getCause());
+        } finally {
+            pool.shutdown();
+            if (out == null) {
+                writer.flush();
+            } else {
+                writer.close();
+            }
+        }
+        final double seconds = (System.nanoTime() - start) / 1e9;
+        System.err.printf("%d games in %.2f s: %.1f games/s on %d threads%n",
+            played, seconds, played / seconds, threads);
+    }
+
+    /*plays games until every game number has been taken, returning how many this thread played*/
+    private int playGames() throws IOException, InvalidMoveException, GameNotOverException {
+        int played = 0;
+        for (int game = nextGame.getAndIncrement(); game < games; game = nextGame.getAndIncrement()) {
+            final String line = playGame(game);
+            synchronized (this) {
+                writer.write(line);
+                writer.write('\n');
+            }
+            played++;
+        }
+        return played;
+    }
+
+    private String playGame(final int number) throws InvalidMoveException, GameNotOverException {
+        final BoardGeometry geometry = BoardGeometry.of(pits, stones);
+        final GameRules board = "ayo".equals(rules) ? new AyoRules(geometry, true) : new KalahRules(geometry, true);
+        final MancalaGame game = new MancalaGame(board);
+        final Player one = new ComputerPlayer("1", makeStrategy(playerOne, seed + 2L * number));
+        final Player two = new ComputerPlayer("2", makeStrategy(playerTwo, seed + 2L * number + 1));
+        game.setPlayers(one, two);
+        final long start = System.nanoTime();
+        int moves = 0;
+        while (!game.isGameOver()) {
+            game.moveComputerPlayer();
+            moves++;
+        }
+        final Player winner = game.getWinner();
+        final long micros = (System.nanoTime() - start) / NANOS_PER_MICRO;
+        final int result = winner == null ? 0 : (winner == one ? 1 : 2);
+        if (json) {
+            return String.format("{\"game\":%d,\"rules\":\"%s\",\"player1\":\"%s\",\"player2\":\"%s\","
+                + "\"winner\":%d,\"store1\":%d,\"store2\":%d,\"moves\":%d,\"micros\":%d}",
+                number, rules, playerOne, playerTwo, result, one.getStoreCount(), two.getStoreCount(),
+                moves, micros);
+        }
+        return String.format("%d,%s,%s,%s,%d,%d,%d,%d,%d", number, rules, playerOne, playerTwo,
+            result, one.getStoreCount(), two.getStoreCount(), moves, micros);
+    }
+
+    private MoveStrategy makeStrategy(final String name, final long strategySeed) {
+        if ("random".equals(name)) {
+            return new RandomStrategy(strategySeed);
+        }
+        if ("greedy".equals(name)) {
+            return new GreedyStrategy();
+        }
+        final SearchEngine engine = new SearchEngine(SearchEngine.STORE_DIFFERENCE, SEARCH_BUDGET_MILLIS);
+        engine.setMaxDepth(depth);
+        engine.setHashSize(SEARCH_HASH_MEGABYTES);
+        return engine;
+    }
+}
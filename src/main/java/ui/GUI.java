@@ -10,15 +10,24 @@ import javax.swing.JMenuBar;
 import javax.swing.JMenu;
 import javax.swing.JMenuItem;
 import javax.swing.SwingConstants;
+import javax.swing.SwingUtilities;
+import javax.swing.SwingWorker;
 import java.awt.BorderLayout;
 import java.awt.GridLayout;
 import java.awt.event.ActionEvent;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
 import java.awt.Dimension;
 import java.awt.Color;
 
 import java.io.IOException;
+import java.util.concurrent.ExecutionException;
 
+import mancala.AsyncSaver;
+import mancala.ComputerPlayer;
+import mancala.GameListener;
 import mancala.MancalaGame;
+import mancala.MoveDelta;
 import mancala.InvalidMoveException;
 import mancala.GameNotOverException;
 import mancala.PitNotFoundException;
@@ -43,6 +52,28 @@ public class GUI extends JFrame  {
     private JButton playerTwoButton;
     private JLabel currentPlayer;
     private JLabel invalidMove;
+    private final AsyncSaver saver = new AsyncSaver();
+    private boolean gameEnded;
+    private SwingWorker<Integer, Void> computerTurn; // the computer choosing a move, null when it is not
+    private final GameListener boardListener = new GameListener() {
+        @Override
+        public void moveApplied(MancalaGame moved, MoveDelta change) {
+            applyChange(change);
+        }
+
+        @Override
+        public void gameOver(MancalaGame ended) {
+            gameEnded = true;
+        }
+
+        @Override
+        public void winnerDecided(MancalaGame ended, Player winner) {
+            ended.addGamePlayed();
+            if (winner != null) {
+                ended.addPlayerWin(winner);
+            }
+        }
+    };
 
     /**
      * Creates a GUI object
@@ -59,6 +90,12 @@ public class GUI extends JFrame  {
         setTitle("Mancala");
 
         setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+        addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosing(WindowEvent event) {
+                saver.close(); // finish any saves still being written
+            }
+        });
         setLayout(new BorderLayout());
         makeChooseRules();
         makePlayerPanel();
@@ -91,6 +128,16 @@ public class GUI extends JFrame  {
             System.exit(0);
         }
         game = new MancalaGame(ruleNum);
+        watchGame();
+    }
+
+    /**
+     * Listens to the current game so the board, the stats and the end of the game
+     * follow its moves without polling it
+     */
+    private void watchGame() {
+        game.addGameListener(boardListener);
+        gameEnded = game.isGameOver();
     }
 
     /**
@@ -109,6 +156,12 @@ public class GUI extends JFrame  {
         } else {
             player2 = new Player("player2");
         }
+        int computer = JOptionPane.showConfirmDialog(this,
+            "Should the computer play as " + player2.getName() + "?", "Computer Opponent",
+            JOptionPane.YES_NO_OPTION);
+        if (computer == JOptionPane.YES_OPTION) {
+            player2 = new ComputerPlayer(player2.getName());
+        }
         game.setPlayers(player1, player2);
     }
 
@@ -119,30 +172,82 @@ public class GUI extends JFrame  {
         getContentPane().setBackground(Color.red);
         updatePlayerText();
         invalidMove.setVisible(false);
-        int activeSide;
-        if (game.getCurrentPlayer().equals(game.getPlayer(1))) {
-            activeSide = 1;
-        } else if (game.getCurrentPlayer().equals(game.getPlayer(2))) {
-            activeSide = 0;
-        } else {
-            activeSide = -1;
-        }
         try {
             for (int y = 0; y < 2; y ++) {
                 for (int x = 0; x < 6 ; x++) {
                     buttons[y][x].setText(Integer.toString(
                         game.getNumStones(((-1 + y) * -12) + (x + y + ((-1 + y) * x * 2)))));
-                    if (y == activeSide) {
-                        buttons[y][x].setEnabled(true);
-                    } else {
-                        buttons[y][x].setEnabled(false);
-                    }
                 }
             }
         } catch (PitNotFoundException err) {
             JOptionPane.showMessageDialog(this, err.getMessage(), "Pit Indexing Error Occured",
                 JOptionPane.ERROR_MESSAGE);
         }
+        enableSide(getActiveSide());
+    }
+
+    /**
+     * Gets the row of buttons that can be clicked, which is none while the computer is to move
+     * 
+     * @return The row of the player to move, or -1 if no pit should be clicked
+     */
+    private int getActiveSide() {
+        final Player current = game.getCurrentPlayer();
+        if (current instanceof ComputerPlayer || computerTurn != null) {
+            return -1;
+        }
+        if (current.equals(game.getPlayer(1))) {
+            return 1;
+        } else if (current.equals(game.getPlayer(2))) {
+            return 0;
+        }
+        return -1;
+    }
+
+    /**
+     * Updates only what the last move changed: the pits it sowed into or emptied,
+     * the stores if they gained stones, and which side can move if the turn passed
+     * 
+     * @param change The changes made by the last move
+     */
+    private void applyChange(MoveDelta change) {
+        invalidMove.setVisible(false);
+        for (int i = 0; i < change.getChangeCount(); i++) {
+            pitButton(change.getChangedPit(i)).setText(Integer.toString(change.getNewCount(i)));
+        }
+        if (change.getStoreGain(1) != 0 || change.getStoreGain(2) != 0 || !change.isBonusTurn()) {
+            updatePlayerText();
+        }
+        if (!change.isBonusTurn()) {
+            enableSide(getActiveSide());
+        }
+    }
+
+    /**
+     * Gets the button showing a pit, player 1's pits along the bottom row from the left
+     * and player 2's along the top row from the right
+     * 
+     * @param pitNum The number of the pit
+     * @return The button for the pit
+     */
+    private PositionAwareButton pitButton(int pitNum) {
+        if (pitNum <= 6) {
+            return buttons[1][pitNum - 1];
+        }
+        return buttons[0][12 - pitNum];
+    }
+
+    /**
+     * Lets only the pits in one row of buttons be clicked
+     * 
+     * @param activeSide The row of the player to move, or -1 to disable every pit
+     */
+    private void enableSide(int activeSide) {
+        for (int y = 0; y < 2; y ++) {
+            for (int x = 0; x < 6 ; x++) {
+                buttons[y][x].setEnabled(y == activeSide);
+            }
+        }
     }
 
     /**
@@ -239,19 +344,22 @@ public class GUI extends JFrame  {
     }
 
     /**
-     * Saves the current game to a file
+     * Saves the current game to a file in the background
      */
     private void saveGame() {
         String saveFileName = JOptionPane.showInputDialog("Enter file name to save to");
-        try {
-            if (saveFileName != null && saveFileName != ""){
-                Saver.saveObject(game, saveFileName);
-                JOptionPane.showMessageDialog(this, "File Saved", "File Saved", 
-                    JOptionPane.PLAIN_MESSAGE);
-            }
-        } catch (IOException err) {
-            JOptionPane.showMessageDialog(this, err.getMessage(), "Could Not Save File", 
-                JOptionPane.ERROR_MESSAGE);
+        if (saveFileName != null && saveFileName != ""){
+            saver.saveObject(game, saveFileName).whenComplete((saved, err) -> {
+                SwingUtilities.invokeLater(() -> {
+                    if (err == null) {
+                        JOptionPane.showMessageDialog(this, "File Saved", "File Saved", 
+                            JOptionPane.PLAIN_MESSAGE);
+                    } else {
+                        JOptionPane.showMessageDialog(this, err.getMessage(), "Could Not Save File", 
+                            JOptionPane.ERROR_MESSAGE);
+                    }
+                });
+            });
         }
     }
 
@@ -279,12 +387,19 @@ public class GUI extends JFrame  {
             return;
         }
         String saveFileName = JOptionPane.showInputDialog("Enter file name to save to");
-        try {
-            Saver.saveObject(player, saveFileName);
-        } catch (IOException err) {
+        if (saveFileName == null) {
             JOptionPane.showMessageDialog(this, "No file name provided", 
                 "Could Not Save Player to File", JOptionPane.ERROR_MESSAGE);
+            return;
         }
+        saver.saveObject(player, saveFileName).whenComplete((saved, err) -> {
+            if (err != null) {
+                SwingUtilities.invokeLater(() -> {
+                    JOptionPane.showMessageDialog(this, err.getMessage(), 
+                        "Could Not Save Player to File", JOptionPane.ERROR_MESSAGE);
+                });
+            }
+        });
     }
 
     /**
@@ -294,6 +409,7 @@ public class GUI extends JFrame  {
         String saveFileName = JOptionPane.showInputDialog("Enter file name to load from");
         try {
             game = (MancalaGame) Saver.loadObject(saveFileName);
+            watchGame();
             player1 = game.getPlayer(1);
             player2 = game.getPlayer(2);
         } catch (IOException err) {
@@ -305,6 +421,7 @@ public class GUI extends JFrame  {
         }
         updateView();
         pack();
+        playComputerTurns();
     }
 
     /**
@@ -342,6 +459,7 @@ public class GUI extends JFrame  {
         }
         updateView();
         pack();
+        playComputerTurns();
     }
 
     /**
@@ -387,13 +505,64 @@ public class GUI extends JFrame  {
             game.move(((-1 + (clicked.getDown() - 1)) * -12) + ((clicked.getAcross() - 1) +
                 (clicked.getDown() - 1) + ((-1 + (clicked.getDown() - 1)) * 
                 (clicked.getAcross() - 1) * 2)));
-            updateView();
         } catch (InvalidMoveException err) {
             invalidMove.setText(err.getMessage());
             invalidMove.setVisible(true);
         }
     }
 
+    /**
+     * Starts the computer choosing its move if it is a computer player's turn. The search runs
+     * in the background with every pit disabled, and the move it picks is played back on the
+     * event thread, which then checks whether the computer moves again.
+     */
+    private void playComputerTurns() {
+        if (computerTurn != null || gameEnded || !(game.getCurrentPlayer() instanceof ComputerPlayer)) {
+            return;
+        }
+        final MancalaGame thinking = game;
+        final ComputerPlayer computer = (ComputerPlayer) game.getCurrentPlayer();
+        computerTurn = new SwingWorker<Integer, Void>() {
+            @Override
+            protected Integer doInBackground() {
+                return computer.chooseMove(thinking);
+            }
+
+            @Override
+            protected void done() {
+                computerTurn = null;
+                if (thinking == game) { // otherwise a game was loaded or restarted while it thought
+                    playComputerMove(this);
+                } else {
+                    updateView();
+                }
+                playComputerTurns();
+            }
+        };
+        enableSide(-1);
+        computerTurn.execute();
+    }
+
+    /**
+     * Plays the move a finished computer search chose
+     * 
+     * @param search The finished search
+     */
+    private void playComputerMove(SwingWorker<Integer, Void> search) {
+        try {
+            game.move(search.get());
+        } catch (InvalidMoveException err) {
+            invalidMove.setText(err.getMessage());
+            invalidMove.setVisible(true);
+            return;
+        } catch (InterruptedException | ExecutionException err) {
+            JOptionPane.showMessageDialog(this, err.getMessage(), "Computer Could Not Move",
+                JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        checkGameState();
+    }
+
     /**
      * Creates the label that tells the player if a move is invalid
      */
@@ -403,14 +572,13 @@ public class GUI extends JFrame  {
     }
 
     /**
-     * Checks if the game is over and ends the game if it is
+     * Ends the game if the last move finished it
      */
     private void checkGameState() {
         int selection = 0;
         
         String button = "Play Again?";
-        if (game.isGameOver()) {
-            game.addGamePlayed();
+        if (gameEnded) {
             Player winner = null;
             try{
                 winner = game.getWinner();
@@ -420,17 +588,16 @@ public class GUI extends JFrame  {
             updateView();
             StringBuilder congrats = new StringBuilder();
             congrats.append("<html>");
-            if (winner.equals(null)) {
+            if (winner == null) {
                 congrats.append("Tie Game!");
             } else {
                 congrats.append(winner.toString() + " Wins!");
-                game.addPlayerWin(winner);
             }
             congrats.append("<br/>Play again?<html/>");
-            //make it so that the number of game won/player increases
             selection = JOptionPane.showConfirmDialog(null, congrats, button, 
                 JOptionPane.YES_NO_OPTION);
             if (selection == JOptionPane.NO_OPTION) {
+                saver.close();
                 System.exit(0);
             } else {
                 restart();
@@ -457,6 +624,7 @@ public class GUI extends JFrame  {
                     buttons[y][x].addActionListener(e -> {
                         makeMove(e);
                         checkGameState();
+                        playComputerTurns();
                     });
                     panel.add(buttons[y][x]);
                 }
@@ -479,6 +647,7 @@ public class GUI extends JFrame  {
         }
         game.setPlayers(player1, player2);
         updateView();
+        playComputerTurns();
     }
 
     /**
@@ -0,0 +1,100 @@
+package mancala;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.BeforeEach;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class AsyncSaverTest {
+
+    private MancalaGame game;
+    private Path directory;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        game = new MancalaGame(new KalahRules());
+        game.setPlayers(new Player("Claire"), new Player("Sarah"));
+        directory = Files.createTempDirectory("saves");
+    }
+
+    private void cleanUp() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(directory);
+    }
+
+    @Test
+    void savedGameLoadsBack() throws Exception {
+        final Path file = directory.resolve("game");
+        try (AsyncSaver saver = new AsyncSaver()) {
+            saver.saveFile(game, file).get();
+            game.move(1);
+            assertEquals(4, ((MancalaGame) Saver.loadFile(file)).getNumStones(1));
+            saver.saveFile(game, file).get();
+            assertEquals(0, ((MancalaGame) Saver.loadFile(file)).getNumStones(1));
+        } finally {
+            cleanUp();
+        }
+    }
+
+    @Test
+    void waitingSavesAreMerged() throws Exception {
+        final Path file = directory.resolve("game");
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        final CountDownLatch release = new CountDownLatch(1);
+        executor.execute(() -> {
+            try {
+                release.await();
+            } catch (InterruptedException err) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        try (AsyncSaver saver = new AsyncSaver(executor)) {
+            final CompletableFuture<Void> first = saver.saveFile(game, file);
+            game.move(1);
+            final CompletableFuture<Void> second = saver.saveFile(game, file);
+            assertSame(first, second);
+            final CompletableFuture<Void> other = saver.saveFile(game, directory.resolve("other"));
+            release.countDown();
+            CompletableFuture.allOf(second, other).get();
+            assertEquals(2, saver.getWriteCount());
+            assertEquals(0, ((MancalaGame) Saver.loadFile(file)).getNumStones(1));
+            try (Stream<Path> files = Files.list(directory)) {
+                assertEquals(2, files.count()); // no temporary files left behind
+            }
+        } finally {
+            cleanUp();
+        }
+    }
+
+    @Test
+    void failedWriteCompletesExceptionally() throws IOException {
+        final AsyncSaver saver = new AsyncSaver();
+        try {
+            final CompletableFuture<Void> save = saver.saveFile(game, directory.resolve("missing").resolve("game"));
+            final ExecutionException err = assertThrows(ExecutionException.class, save::get);
+            assertTrue(err.getCause() instanceof IOException);
+            saver.close();
+            assertTrue(saver.saveFile(game, directory.resolve("late")).isCompletedExceptionally());
+        } finally {
+            saver.close();
+            cleanUp();
+        }
+    }
+}
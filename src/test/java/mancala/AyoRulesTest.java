@@ -191,6 +191,11 @@ public class AyoRulesTest {
         assertEquals(game.distributeStones(9), 4);
     }
 
+    @Test
+    void distributeStonesMatchesStoneByStoneRelay() {
+        SowingReference.assertMatches(AyoRules::new, SowingReference::relayStoneByStone);
+    }
+
     @Test
     void captureStonesP1() {
         structure.removeStones(5);
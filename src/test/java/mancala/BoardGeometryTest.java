@@ -0,0 +1,81 @@
+package mancala;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class BoardGeometryTest {
+
+    /*the position after index the way the iterator used to step, one hole at a time*/
+    private static int stepPast(final int index, final int skippedStore, final int skippedPit, final int holes) {
+        int next = index;
+        do {
+            next = (next + 1) % holes;
+        } while (next == skippedStore || next == skippedPit);
+        return next;
+    }
+
+    @Test
+    void standardTablesMatchFixedArithmetic() {
+        final BoardGeometry geometry = BoardGeometry.STANDARD;
+        for (int pit = 1; pit <= 12; pit++) {
+            assertEquals(12 - (pit - 1), geometry.getOppositePit(pit));
+            assertEquals(pit <= 6 ? pit - 1 : pit, geometry.getPitIndex(pit));
+        }
+        for (int index = 0; index <= 13; index++) {
+            assertEquals(index < 6 ? index + 1 : index, geometry.getPitNumber(index));
+            assertEquals(stepPast(index, 13, -1, 14), geometry.getNextHole(1, index));
+            assertEquals(stepPast(index, 6, -1, 14), geometry.getNextHole(2, index));
+        }
+    }
+
+    @Test
+    void everySizeMatchesItsMapping() {
+        for (int pits = 1; pits <= BoardGeometry.MAX_PITS_PER_SIDE; pits++) {
+            final BoardGeometry geometry = BoardGeometry.of(pits, 3);
+            final int holes = geometry.getHoleCount();
+            for (int pit = 1; pit <= geometry.getPitCount(); pit++) {
+                final int opposite = geometry.getOppositePit(pit);
+                assertEquals(pit, geometry.getOppositePit(opposite));
+                assertNotEquals(geometry.getSide(pit), geometry.getSide(opposite));
+                assertEquals(pit, geometry.getPitNumber(geometry.getPitIndex(pit)));
+            }
+            for (int index = 0; index < holes; index++) {
+                assertEquals(stepPast(index, geometry.getStoreIndex(2), -1, holes), geometry.getNextHole(1, index));
+                assertEquals(stepPast(index, geometry.getStoreIndex(1), -1, holes), geometry.getNextHole(2, index));
+            }
+        }
+    }
+
+    @Test
+    void iteratorFollowsTable() {
+        for (int pits = 1; pits <= BoardGeometry.MAX_PITS_PER_SIDE; pits++) {
+            final BoardGeometry geometry = BoardGeometry.of(pits, 1);
+            final MancalaDataStructure structure = new MancalaDataStructure(geometry, false);
+            final int holes = geometry.getHoleCount();
+            for (int start = 1; start <= geometry.getPitCount(); start++) {
+                final int player = geometry.getSide(start);
+                final int skippedStore = geometry.getStoreIndex(3 - player);
+                structure.setIterator(start, player, true);
+                int expected = geometry.getPitIndex(start);
+                for (int step = 0; step < 2 * holes; step++) {
+                    expected = stepPast(expected, skippedStore, geometry.getPitIndex(start), holes);
+                    structure.next();
+                    assertEquals(expected, structure.getIteratorPos());
+                }
+            }
+        }
+    }
+
+    @Test
+    void standardSizeIsShared() {
+        assertSame(BoardGeometry.STANDARD, BoardGeometry.of(6, 4));
+        assertEquals(BoardGeometry.of(8, 4), BoardGeometry.of(8, 4));
+        assertThrows(IllegalArgumentException.class, () -> {
+            BoardGeometry.of(BoardGeometry.MAX_PITS_PER_SIDE + 1, 4);
+        });
+    }
+}
@@ -0,0 +1,72 @@
+package mancala;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.BeforeEach;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class BoardSnapshotTest {
+
+    private KalahRules game;
+    private MancalaDataStructure structure;
+
+    @BeforeEach
+    void setUp() {
+        game = new KalahRules();
+        game.registerPlayers(new Player("Claire"), new Player("Sarah"));
+        structure = game.getDataStructure();
+    }
+
+    @Test
+    void snapshotCopiesPosition() throws InvalidMoveException {
+        game.moveStones(4, 1);
+        final BoardSnapshot snapshot = BoardSnapshot.of(game);
+        for (int i = 1; i <= 12; i++) {
+            assertEquals(game.getNumStones(i), snapshot.getNumStones(i));
+        }
+        assertEquals(1, snapshot.getStoreCount(1));
+        assertEquals(0, snapshot.getStoreCount(2));
+        assertEquals(2, snapshot.getCurrentPlayer());
+        assertEquals(BoardSnapshot.KALAH, snapshot.getRules());
+    }
+
+    @Test
+    void snapshotRestoresPosition() throws InvalidMoveException {
+        final BoardSnapshot start = BoardSnapshot.of(game);
+        game.moveStones(4, 1);
+        game.moveStones(8, 2);
+        start.restore(game);
+        assertEquals(start, BoardSnapshot.of(game));
+        assertEquals(4, game.getNumStones(4));
+        assertEquals(0, game.getStoreCount(1));
+        assertEquals(1, game.getCurrentPlayer());
+    }
+
+    @Test
+    void equalPositionsShareHash() {
+        final KalahRules other = new KalahRules();
+        assertEquals(BoardSnapshot.of(game), BoardSnapshot.of(other));
+        assertEquals(BoardSnapshot.of(game).hashCode(), BoardSnapshot.of(other).hashCode());
+        other.setCurrentPlayer(2);
+        assertNotEquals(BoardSnapshot.of(game), BoardSnapshot.of(other));
+        assertNotEquals(BoardSnapshot.of(game), BoardSnapshot.of(new AyoRules()));
+    }
+
+    @Test
+    void restoreRejectsOtherRules() {
+        final BoardSnapshot snapshot = BoardSnapshot.of(game);
+        assertThrows(IllegalArgumentException.class, () -> {
+            snapshot.restore(new AyoRules());
+        });
+    }
+
+    @Test
+    void snapshotRejectsOverfullPit() {
+        structure.addStones(3, 300);
+        assertThrows(IllegalArgumentException.class, () -> {
+            BoardSnapshot.of(game);
+        });
+    }
+}
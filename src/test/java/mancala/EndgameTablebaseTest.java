@@ -0,0 +1,162 @@
+package mancala;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class EndgameTablebaseTest {
+
+    private static EndgameTablebase tablebase;
+    private KalahRules rules;
+    private MancalaDataStructure structure;
+
+    @BeforeAll
+    static void solveTable() {
+        tablebase = EndgameTablebase.solve(6);
+    }
+
+    @BeforeEach
+    void setUp() {
+        rules = new KalahRules();
+        structure = rules.getDataStructure();
+        for (int i = 1; i <= 12; i++) {
+            structure.removeStones(i);
+        }
+    }
+
+    /*plays out every line to the end*/
+    private static int solveByHand(final GameRules position) {
+        if (position.isSideEmpty(1) || position.isSideEmpty(7)) {
+            return SearchEngine.finalScore(position);
+        }
+        int best = Integer.MIN_VALUE;
+        final int mover = position.getCurrentPlayer();
+        for (int moves = position.getLegalMoves(); moves != 0; moves &= moves - 1) {
+            position.makeMove(Integer.numberOfTrailingZeros(moves));
+            final int score = solveByHand(position);
+            best = Math.max(best, position.getCurrentPlayer() == mover ? score : -score);
+            position.unmakeMove();
+        }
+        return best;
+    }
+
+    @Test
+    void probeMatchesFullSearch() {
+        final Random random = new Random(12);
+        for (int trial = 0; trial < 200; trial++) {
+            for (int i = 1; i <= 12; i++) {
+                structure.removeStones(i);
+            }
+            for (int stone = random.nextInt(7); stone > 0; stone--) {
+                structure.addStones(1 + random.nextInt(12), 1);
+            }
+            structure.emptyStores();
+            structure.addToStore(1, random.nextInt(20));
+            structure.addToStore(2, random.nextInt(20));
+            rules.setCurrentPlayer(1 + random.nextInt(2));
+            assertEquals(solveByHand(rules), tablebase.probe(rules));
+        }
+    }
+
+    @Test
+    void probeCountsStoresAndCapture() {
+        structure.addStones(1, 1);
+        structure.addStones(12, 3);
+        structure.addToStore(2, 5);
+        assertEquals(-7, tablebase.probe(rules));
+        final MancalaGame game = new MancalaGame(rules);
+        assertEquals(-7, game.probeTablebase(tablebase));
+    }
+
+    @Test
+    void probeSkipsUncoveredPositions() {
+        assertTrue(tablebase.covers(rules));
+        structure.addStones(3, 7);
+        assertFalse(tablebase.covers(rules));
+        assertEquals(EndgameTablebase.UNKNOWN, tablebase.probe(rules));
+        assertFalse(tablebase.covers(new AyoRules()));
+    }
+
+    @Test
+    void searchUsesTable() {
+        structure.addStones(2, 2);
+        structure.addStones(5, 1);
+        structure.addStones(9, 3);
+        final SearchEngine engine = new SearchEngine(SearchEngine.STORE_DIFFERENCE, 60_000);
+        engine.setTablebase(tablebase);
+        engine.chooseMove(rules);
+        assertEquals(solveByHand(rules), engine.getScore());
+    }
+
+    /*deletes a table file, which Windows refuses while the file is still mapped, so it is then left for exit*/
+    private static void deleteTable(final Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException err) {
+            file.toFile().deleteOnExit();
+        }
+    }
+
+    @Test
+    void tableSurvivesFile() throws IOException {
+        final Path file = Files.createTempFile("kalah", ".tb");
+        final Path corrupt = Files.createTempFile("kalah", ".tb"); // the mapped file is never rewritten
+        try {
+            EndgameTablebase.generate(4, file);
+            final EndgameTablebase loaded = EndgameTablebase.load(file);
+            assertEquals(4, loaded.getMaxStones());
+            structure.addStones(4, 2);
+            structure.addStones(10, 2);
+            assertEquals(tablebase.probe(rules), loaded.probe(rules));
+            Files.write(corrupt, new byte[] {1, 2, 3});
+            assertThrows(IOException.class, () -> {
+                EndgameTablebase.load(corrupt);
+            });
+        } finally {
+            deleteTable(file);
+            Files.delete(corrupt);
+        }
+    }
+
+    @Test
+    void stoneCountOutOfRangeIsRejected() {
+        for (int stones : new int[] {-1, Integer.MIN_VALUE, 101, Integer.MAX_VALUE}) {
+            final ByteBuffer header = ByteBuffer.allocate(EndgameTablebase.HEADER_SIZE);
+            header.putInt(EndgameTablebase.MAGIC).putInt(EndgameTablebase.VERSION).putInt(12).putInt(stones);
+            assertThrows(IOException.class, () -> {
+                EndgameTablebase.fromBuffer(header);
+            });
+        }
+    }
+
+    @Test
+    void mappedTableSharedByThreads() throws Exception {
+        final Path file = Files.createTempFile("kalah", ".tb");
+        try {
+            EndgameTablebase.generate(6, file);
+            final EndgameTablebase mapped = EndgameTablebase.load(file);
+            final SearchEngine engine = new SearchEngine(SearchEngine.STORE_DIFFERENCE, 60_000);
+            engine.setTablebase(mapped);
+            engine.setThreads(4);
+            structure.addStones(1, 2);
+            structure.addStones(3, 1);
+            structure.addStones(8, 2);
+            structure.addStones(12, 1);
+            engine.chooseMove(rules);
+            assertEquals(tablebase.probe(rules), engine.getScore());
+        } finally {
+            deleteTable(file);
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package mancala;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.BeforeEach;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class GameCodecTest {
+
+    private MancalaGame game;
+    private Player one;
+    private Player two;
+
+    @BeforeEach
+    void setUp() throws InvalidMoveException {
+        game = new MancalaGame(new KalahRules());
+        one = new Player("Claire");
+        two = new ComputerPlayer("Sarah");
+        game.setPlayers(one, two);
+        one.getUserProfile().addKalaPlay();
+        one.getUserProfile().addKalaWin();
+        two.getUserProfile().addAyoPlay();
+        game.move(3);
+        game.move(1);
+    }
+
+    private static void assertSamePosition(final MancalaGame expected, final MancalaGame actual) {
+        assertEquals(BoardSnapshot.of(expected.getBoard()), BoardSnapshot.of(actual.getBoard()));
+        assertEquals(expected.getBoard().getGeometry(), actual.getBoard().getGeometry());
+        for (int player = 1; player <= 2; player++) {
+            final Player before = expected.getPlayer(player);
+            final Player after = actual.getPlayer(player);
+            assertEquals(before.getName(), after.getName());
+            assertEquals(before.getClass(), after.getClass());
+            assertEquals(before.getUserProfile().toString(), after.getUserProfile().toString());
+            assertEquals(before.getStoreCount(), after.getStoreCount());
+        }
+    }
+
+    private static byte[] serialize(final Object object) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(object);
+        }
+        return bytes.toByteArray();
+    }
+
+    @Test
+    void gameSurvivesRoundTrip() throws IOException {
+        final MancalaGame loaded = (MancalaGame) GameCodec.decode(GameCodec.encode(game));
+        assertSamePosition(game, loaded);
+        assertEquals(game.getCurrentPlayer().getName(), loaded.getCurrentPlayer().getName());
+    }
+
+    @Test
+    void largerBoardAndBigCountsSurvive() throws IOException {
+        final MancalaGame large = new MancalaGame(new AyoRules(BoardGeometry.of(8, 5), false));
+        large.setPlayers(new Player("a"), new Player("\u00e9l\u00e8ve"));
+        large.getBoard().getDataStructure().addStones(4, 200);
+        large.getBoard().getDataStructure().addToStore(2, 20_000);
+        large.getBoard().setCurrentPlayer(2);
+        assertSamePosition(large, (MancalaGame) GameCodec.decode(GameCodec.encode(large)));
+    }
+
+    @Test
+    void playerSurvivesRoundTrip() throws IOException {
+        final Player loaded = (Player) GameCodec.decode(GameCodec.encode(one));
+        assertEquals("Claire", loaded.getName());
+        assertEquals(1, loaded.getUserProfile().getKalaWins());
+        assertEquals(1, loaded.getUserProfile().getKalaPlays());
+    }
+
+    @Test
+    void encodingIsSmallerThanSerialization() throws IOException {
+        final byte[] encoded = GameCodec.encode(game);
+        assertTrue(encoded.length * 10 < serialize(game).length);
+    }
+
+    @Test
+    void corruptDataIsRejected() {
+        final byte[] encoded = GameCodec.encode(game);
+        assertThrows(IOException.class, () -> {
+            GameCodec.decode(Arrays.copyOf(encoded, encoded.length - 3));
+        });
+        assertThrows(IOException.class, () -> {
+            GameCodec.decode(new byte[] {1, 2, 3, 4, 5, 6});
+        });
+        encoded[Integer.BYTES] = GameCodec.VERSION + 1;
+        assertThrows(IOException.class, () -> {
+            GameCodec.decode(encoded);
+        });
+    }
+
+    @Test
+    void saverLoadsLegacyFilesAndMigrates() throws IOException {
+        final Path file = Files.createTempFile("mancala", ".ser");
+        try {
+            Files.write(file, serialize(game));
+            assertFalse(GameCodec.isEncoded(Files.readAllBytes(file)));
+            assertEquals(game.toString(), Saver.loadFile(file).toString());
+            Saver.saveFile(Saver.loadFile(file), file);
+            assertTrue(GameCodec.isEncoded(Files.readAllBytes(file)));
+            assertSamePosition(game, (MancalaGame) Saver.loadFile(file));
+            Files.write(file, new byte[] {7, 7, 7});
+            assertThrows(IOException.class, () -> {
+                Saver.loadFile(file);
+            });
+        } finally {
+            Files.delete(file);
+        }
+    }
+}
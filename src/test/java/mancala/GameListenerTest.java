@@ -0,0 +1,160 @@
+package mancala;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class GameListenerTest {
+
+    /*writes down every event as a short line*/
+    private static final class Recorder implements GameListener {
+        private final List<String> events = new ArrayList<>();
+
+        @Override
+        public void moveApplied(final MancalaGame game, final MoveDelta change) {
+            events.add("move " + change.getPlayer() + ":" + change.getPit());
+        }
+
+        @Override
+        public void stonesCaptured(final MancalaGame game, final int playerNum, final int stones) {
+            events.add("capture " + playerNum + " " + stones);
+        }
+
+        @Override
+        public void bonusTurn(final MancalaGame game, final int playerNum) {
+            events.add("bonus " + playerNum);
+        }
+
+        @Override
+        public void gameOver(final MancalaGame game) {
+            events.add("over");
+        }
+
+        @Override
+        public void winnerDecided(final MancalaGame game, final Player winner) {
+            events.add("winner " + (winner == null ? "none" : winner.getName()));
+        }
+    }
+
+    private static MancalaGame newGame() {
+        final MancalaGame game = new MancalaGame(new KalahRules());
+        game.setPlayers(new Player("one"), new Player("two"));
+        return game;
+    }
+
+    private static int randomMove(final MancalaGame game, final SplittableRandom random) {
+        int legal = game.getLegalMoves();
+        for (int skip = random.nextInt(Integer.bitCount(legal)); skip > 0; skip--) {
+            legal &= legal - 1;
+        }
+        return Integer.numberOfTrailingZeros(legal);
+    }
+
+    @Test
+    void movesAreAnnounced() throws InvalidMoveException {
+        final Recorder recorder = new Recorder();
+        final MancalaGame bonus = newGame();
+        bonus.addGameListener(recorder);
+        bonus.move(3);
+        assertEquals(List.of("move 1:3", "bonus 1"), recorder.events);
+        recorder.events.clear();
+        final MancalaGame capture = newGame();
+        capture.addGameListener(recorder);
+        capture.move(5);
+        capture.move(7);
+        capture.move(1);
+        assertEquals(List.of("move 1:5", "move 2:7", "move 1:1", "capture 1 7"), recorder.events);
+    }
+
+    @Test
+    void triedMovesAreAnnounced() {
+        final Recorder recorder = new Recorder();
+        final MancalaGame game = newGame();
+        game.addGameListener(recorder);
+        assertEquals(-1, game.tryMove(8));
+        assertTrue(recorder.events.isEmpty());
+        game.tryMove(5);
+        game.tryMove(7);
+        game.getBoard().makeMove(2); // searching ahead on the live board
+        game.getBoard().unmakeMove();
+        game.tryMove(1);
+        assertEquals(List.of("move 1:5", "move 2:7", "move 1:1", "capture 1 7"), recorder.events);
+        assertEquals(7, game.getLastChange().getCaptured());
+    }
+
+    @Test
+    void endOfGameIsAnnouncedOnce() throws Exception {
+        final MancalaGame game = newGame();
+        final Recorder recorder = new Recorder();
+        game.addGameListener(recorder);
+        final SplittableRandom random = new SplittableRandom(3);
+        for (int round = 0; round < 2; round++) {
+            recorder.events.clear();
+            while (!game.isGameOver()) {
+                game.move(randomMove(game, random));
+            }
+            assertEquals("over", recorder.events.get(recorder.events.size() - 1));
+            assertEquals(1, recorder.events.stream().filter("over"::equals).count());
+            final Player winner = game.getWinner();
+            game.getWinner();
+            assertEquals("winner " + (winner == null ? "none" : winner.getName()),
+                recorder.events.get(recorder.events.size() - 1));
+            assertEquals(1, recorder.events.stream().filter(event -> event.startsWith("winner")).count());
+            game.startNewGame();
+            game.setPlayers(game.getPlayer(1), game.getPlayer(2));
+        }
+    }
+
+    @Test
+    void removedListenersHearNothing() throws InvalidMoveException {
+        final MancalaGame game = newGame();
+        final Recorder first = new Recorder();
+        final Recorder second = new Recorder();
+        game.addGameListener(first);
+        game.addGameListener(second);
+        assertTrue(game.removeGameListener(first));
+        assertFalse(game.removeGameListener(first));
+        game.move(1);
+        assertTrue(first.events.isEmpty());
+        assertEquals(List.of("move 1:1"), second.events);
+        assertTrue(game.removeGameListener(second));
+        game.move(8);
+        assertEquals(1, second.events.size());
+    }
+
+    @Test
+    void unwatchedMovesAllocateNothing() throws Exception {
+        final com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        final long thread = Thread.currentThread().getId();
+        final SplittableRandom random = new SplittableRandom(5);
+        final int[] pits = new int[200];
+        long allocated = 0;
+        int moves = 0;
+        for (int round = 0; round < 20; round++) {
+            final MancalaGame game = newGame();
+            int count = 0;
+            final MancalaGame copy = newGame(); // the same game played ahead to choose the moves
+            while (!copy.isGameOver()) {
+                pits[count] = randomMove(copy, random);
+                copy.move(pits[count++]);
+            }
+            game.move(pits[0]); // sets up the copy of the board kept for the last move's changes
+            final long start = threads.getThreadAllocatedBytes(thread);
+            for (int i = 1; i < count; i++) {
+                game.move(pits[i]);
+            }
+            allocated += threads.getThreadAllocatedBytes(thread) - start;
+            moves += count - 1;
+        }
+        assertTrue(moves > 100);
+        assertTrue(allocated < 64, allocated + " bytes allocated for " + moves + " moves");
+    }
+}
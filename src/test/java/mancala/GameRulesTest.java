@@ -3,7 +3,14 @@ package mancala;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.BeforeEach;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Random;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 
 public class GameRulesTest {
@@ -133,4 +140,181 @@ public class GameRulesTest {
         assertEquals(player2.getStoreCount(), 51);
     }
 
-}
\ No newline at end of file
+
+    @Test
+    public void hashMatchesRecountDuringPlay() {
+        final Random random = new Random(7);
+        final GameRules[] allRules = {new KalahRules(), new AyoRules()};
+        for (GameRules rules : allRules) {
+            final MancalaDataStructure board = rules.getDataStructure();
+            rules.registerPlayers(new Player("one"), new Player("two"));
+            for (int turn = 0; turn < 500; turn++) {
+                if (rules.isSideEmpty(1) || rules.isSideEmpty(7)) {
+                    rules.resetBoard();
+                }
+                final int player = rules.getCurrentPlayer();
+                try {
+                    rules.moveStones((player == 1 ? 1 : 7) + random.nextInt(6), player);
+                } catch (InvalidMoveException err) {
+                    continue;
+                }
+                assertEquals(board.computeHash(), board.getHash());
+            }
+        }
+    }
+
+    /*adds up a side one pit at a time*/
+    private static int recountSide(final GameRules rules, final int playerNum) {
+        final BoardGeometry geometry = rules.getGeometry();
+        final int first = geometry.getFirstPit(playerNum);
+        int total = 0;
+        for (int pit = first; pit < first + geometry.getPitsPerSide(); pit++) {
+            total += rules.getNumStones(pit);
+        }
+        return total;
+    }
+
+    private static void assertSideTotals(final GameRules rules) {
+        for (int player = 1; player <= 2; player++) {
+            assertEquals(recountSide(rules, player), rules.getSideCount(player));
+            assertEquals(recountSide(rules, player) == 0, rules.isSideEmpty(rules.getGeometry().getFirstPit(player)));
+        }
+    }
+
+    @Test
+    public void sideTotalsMatchRecountDuringPlay() throws Exception {
+        final Random random = new Random(13);
+        final GameRules[] allRules = {new KalahRules(), new AyoRules(), new KalahRules(BoardGeometry.of(4, 9), true)};
+        for (GameRules rules : allRules) {
+            rules.registerPlayers(new Player("one"), new Player("two"));
+            final int side = rules.getGeometry().getPitsPerSide();
+            for (int turn = 0; turn < 500; turn++) {
+                if (rules.isGameOver()) {
+                    rules.clearBoard();
+                    assertSideTotals(rules);
+                    rules.resetBoard();
+                }
+                final int pit = (rules.getCurrentPlayer() == 1 ? 1 : side + 1) + random.nextInt(side);
+                if (rules.makeMove(pit) >= 0) {
+                    assertSideTotals(rules);
+                    rules.unmakeMove();
+                }
+                assertSideTotals(rules);
+                final GameRules copy = rules.copy();
+                copy.tryMove(pit);
+                assertSideTotals(copy);
+                try {
+                    rules.moveStones(pit, rules.getCurrentPlayer());
+                } catch (InvalidMoveException err) {
+                    continue;
+                }
+                assertSideTotals(rules);
+            }
+            final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+                out.writeObject(rules);
+            }
+            try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+                assertSideTotals((GameRules) in.readObject());
+            }
+        }
+    }
+
+    @Test
+    public void positionHashTracksPlayerAndRules() {
+        final GameRules kalah = new KalahRules();
+        assertEquals(game.getDataStructure().getHash(), kalah.getDataStructure().getHash());
+        assertNotEquals(game.getPositionHash(), kalah.getPositionHash());
+        final long playerOneHash = kalah.getPositionHash();
+        kalah.setCurrentPlayer(2);
+        assertNotEquals(playerOneHash, kalah.getPositionHash());
+        kalah.setCurrentPlayer(1);
+        assertEquals(playerOneHash, kalah.getPositionHash());
+    }
+
+    @Test
+    public void subclassedRulesKeepTheirVariant() {
+        final GameRules ayo = new AyoRules();
+        final GameRules subclass = new AyoRules() {
+            private static final long serialVersionUID = 1L;
+        };
+        assertEquals(BoardSnapshot.AYO, BoardSnapshot.variantOf(subclass));
+        assertEquals(ayo.getPositionHash(), subclass.getPositionHash());
+        assertNotEquals(new KalahRules().getPositionHash(), subclass.getPositionHash());
+    }
+
+    @Test
+    public void unmakeMoveRestoresPosition() {
+        final Random random = new Random(11);
+        final GameRules[] allRules = {new KalahRules(), new AyoRules()};
+        for (GameRules rules : allRules) {
+            rules.registerPlayers(new Player("one"), new Player("two"));
+            final BoardSnapshot[] history = new BoardSnapshot[40];
+            int depth = 0;
+            while (depth < history.length && !rules.isSideEmpty(1) && !rules.isSideEmpty(7)) {
+                final BoardSnapshot before = BoardSnapshot.of(rules);
+                final int pit = (rules.getCurrentPlayer() == 1 ? 1 : 7) + random.nextInt(6);
+                if (rules.makeMove(pit) >= 0) {
+                    history[depth] = before;
+                    depth++;
+                } else {
+                    assertEquals(before, BoardSnapshot.of(rules));
+                }
+            }
+            final long hash = rules.getPositionHash();
+            for (int i = depth - 1; i >= 0; i--) {
+                rules.unmakeMove();
+                assertEquals(history[i], BoardSnapshot.of(rules));
+            }
+            assertNotEquals(hash, rules.getPositionHash());
+            assertEquals(0, rules.getStoreCount(1));
+            assertEquals(0, rules.getStoreCount(2));
+        }
+    }
+
+    @Test
+    public void makeMoveRejectsEmptyPit() {
+        structure.removeStones(2);
+        assertEquals(-1, game.makeMove(2));
+        assertEquals(-1, game.makeMove(8));
+        assertEquals(1, game.getCurrentPlayer());
+    }
+
+    @Test
+    public void legalMovesMatchValidPits() {
+        structure.removeStones(2);
+        structure.removeStones(9);
+        assertEquals(0b1111010, game.getLegalMoves());
+        game.setCurrentPlayer(2);
+        assertEquals(0b1110110000000, game.getLegalMoves());
+        for (int pit = 0; pit <= 13; pit++) {
+            assertEquals(game.isLegalMove(pit), (game.getLegalMoves() & 1 << pit) != 0);
+        }
+    }
+
+    @Test
+    public void tryMoveIllegalChangesNothing() {
+        final BoardSnapshot before = BoardSnapshot.of(game);
+        assertEquals(-1, game.tryMove(9));
+        structure.removeStones(1);
+        assertEquals(-1, game.tryMove(1));
+        structure.addStones(1, 4);
+        assertEquals(before, BoardSnapshot.of(game));
+    }
+
+    @Test
+    public void smallerBoardSidesAndMoves() {
+        final GameRules small = new AyoRules(BoardGeometry.of(4, 3), false);
+        assertEquals(0b11110, small.getLegalMoves());
+        small.setCurrentPlayer(2);
+        assertEquals(0b111100000, small.getLegalMoves());
+        assertEquals(false, small.isValidMove(9));
+        for (int i = 5; i <= 8; i++) {
+            small.getDataStructure().removeStones(i);
+        }
+        assertEquals(true, small.isSideEmpty(5));
+        assertEquals(false, small.isSideEmpty(4));
+        assertEquals(true, small.isGameOver());
+        assertEquals(BoardGeometry.of(4, 3), small.copy().getGeometry());
+    }
+}
@@ -0,0 +1,27 @@
+package mancala;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class GreedyStrategyTest {
+
+    /*rules that fail if a move is tried on them rather than on a copy*/
+    private static final class UntouchableRules extends KalahRules {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        public int makeMove(final int startPit) {
+            throw new AssertionError("Tried pit " + startPit + " on the rules being searched");
+        }
+    }
+
+    @Test
+    void chooseMoveLeavesRulesUntouched() {
+        final GameRules rules = new UntouchableRules();
+        rules.registerPlayers(new Player("Claire"), new Player("Sarah"));
+        final BoardSnapshot before = BoardSnapshot.of(rules);
+        assertEquals(3, new GreedyStrategy().chooseMove(rules)); // the bonus turn
+        assertEquals(before, BoardSnapshot.of(rules));
+    }
+}
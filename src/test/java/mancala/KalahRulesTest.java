@@ -3,7 +3,6 @@ package mancala;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.BeforeEach;
 
-
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
@@ -171,6 +170,11 @@ public class KalahRulesTest {
         }
     }
 
+    @Test
+    void distributeStonesMatchesStoneByStoneSowing() {
+        SowingReference.assertMatches(KalahRules::new, SowingReference::sowStoneByStone);
+    }
+
     @Test
     void getBonusTurnNonStore() {
         game.setCurrentPlayer(2);
@@ -251,4 +255,35 @@ public class KalahRulesTest {
         assertEquals(game.shouldCaptureStones(9), false);
     }
 
-}
\ No newline at end of file
+    @Test
+    void largerBoardSowsPastStore() throws InvalidMoveException {
+        final KalahRules large = new KalahRules(BoardGeometry.of(8, 4), false);
+        large.registerPlayers(new Player("Claire"), new Player("Sarah"));
+        large.moveStones(7, 1);
+        assertEquals(0, large.getNumStones(7));
+        assertEquals(5, large.getNumStones(8));
+        assertEquals(1, large.getStoreCount(1));
+        assertEquals(5, large.getNumStones(10));
+        assertEquals(4, large.getNumStones(11));
+        assertEquals(2, large.getCurrentPlayer());
+    }
+
+    @Test
+    void largerBoardBonusTurnAndCapture() throws InvalidMoveException {
+        final KalahRules large = new KalahRules(BoardGeometry.of(8, 4), true);
+        large.registerPlayers(new Player("Claire"), new Player("Sarah"));
+        final MancalaDataStructure board = large.getDataStructure();
+        board.removeStones(4);
+        board.addStones(4, 5);
+        large.moveStones(4, 1);
+        assertEquals(1, large.getStoreCount(1));
+        assertEquals(1, large.getCurrentPlayer());
+        board.removeStones(2);
+        board.removeStones(1);
+        board.addStones(1, 1);
+        large.moveStones(1, 1);
+        assertEquals(0, large.getNumStones(15)); // opposite pit 2 is 2 * 8 + 1 - 2
+        assertEquals(6, large.getStoreCount(1));
+        assertEquals(2, large.getCurrentPlayer());
+    }
+}
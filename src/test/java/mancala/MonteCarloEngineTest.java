@@ -0,0 +1,46 @@
+package mancala;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.BeforeEach;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class MonteCarloEngineTest {
+
+    private MonteCarloEngine engine;
+    private AyoRules rules;
+
+    @BeforeEach
+    void setUp() {
+        engine = new MonteCarloEngine(2000, 0);
+        rules = new AyoRules();
+        rules.registerPlayers(new Player("Claire"), new Player("Sarah"));
+    }
+
+    @Test
+    void chooseMoveRunsIterationsAndLeavesGameUnchanged() {
+        final BoardSnapshot before = BoardSnapshot.of(rules);
+        final int pit = engine.chooseMove(rules);
+        assertTrue(rules.isLegalMove(pit));
+        assertEquals(before, BoardSnapshot.of(rules));
+        assertEquals(2000, engine.getPlayouts());
+        assertTrue(engine.getWinRate() >= 0 && engine.getWinRate() <= 1);
+    }
+
+    @Test
+    void parallelPlayoutsShareIterationCount() {
+        engine.setThreads(3);
+        rules.setCurrentPlayer(2);
+        final int pit = engine.chooseMove(rules);
+        assertTrue(pit >= 7 && pit <= 12);
+        assertEquals(2000, engine.getPlayouts());
+    }
+
+    @Test
+    void timeLimitRunsAtLeastOnePlayout() {
+        engine.setLimits(0, 1);
+        engine.chooseMove(new KalahRules());
+        assertTrue(engine.getPlayouts() > 0);
+    }
+}
@@ -0,0 +1,145 @@
+package mancala;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class MoveDeltaTest {
+
+    private static MancalaGame newGame(final GameRules rules) {
+        final MancalaGame game = new MancalaGame(rules);
+        game.setPlayers(new Player("one"), new Player("two"));
+        return game;
+    }
+
+    /*reads every pit and store the slow way, pits first and then the two stores*/
+    private static int[] readBoard(final MancalaGame game) {
+        final int pits = game.getBoard().getGeometry().getPitCount();
+        final int[] board = new int[pits + 2];
+        for (int pit = 1; pit <= pits; pit++) {
+            board[pit - 1] = game.getBoard().getNumStones(pit);
+        }
+        board[pits] = game.getStoreCount(1);
+        board[pits + 1] = game.getStoreCount(2);
+        return board;
+    }
+
+    private static void apply(final MoveDelta change, final int[] board) {
+        for (int i = 0; i < change.getChangeCount(); i++) {
+            board[change.getChangedPit(i) - 1] = change.getNewCount(i);
+        }
+        board[board.length - 2] += change.getStoreGain(1);
+        board[board.length - 1] += change.getStoreGain(2);
+    }
+
+    /*plays random games, keeping a copy of the board up to date from the deltas alone*/
+    private static void playFromDeltas(final GameRules rules, final long seed) throws Exception {
+        final SplittableRandom random = new SplittableRandom(seed);
+        final MancalaGame game = newGame(rules);
+        final int[] board = readBoard(game);
+        while (!game.isGameOver()) {
+            int legal = game.getLegalMoves();
+            for (int skip = random.nextInt(Integer.bitCount(legal)); skip > 0; skip--) {
+                legal &= legal - 1;
+            }
+            final int pit = Integer.numberOfTrailingZeros(legal);
+            final int mover = game.getBoard().getCurrentPlayer();
+            game.move(pit);
+            final MoveDelta change = game.getLastChange();
+            assertEquals(pit, change.getPit());
+            assertEquals(mover, change.getPlayer());
+            assertEquals(game.getBoard().getCurrentPlayer(), change.getNextPlayer());
+            apply(change, board);
+            assertArrayEquals(readBoard(game), board);
+            assertEquals(change, MoveDelta.fromBytes(change.toBytes()));
+        }
+    }
+
+    @Test
+    void deltasRebuildTheBoard() throws Exception {
+        for (long seed = 0; seed < 50; seed++) {
+            playFromDeltas(new KalahRules(seed % 2 == 0), seed);
+            playFromDeltas(new AyoRules(seed % 2 == 0), seed);
+        }
+        playFromDeltas(new KalahRules(BoardGeometry.of(BoardGeometry.MAX_PITS_PER_SIDE, 3), true), 1);
+        playFromDeltas(new AyoRules(BoardGeometry.of(4, 6), false), 2);
+    }
+
+    @Test
+    void bonusTurnDeltaIsSmall() throws InvalidMoveException {
+        final MancalaGame game = newGame(new KalahRules());
+        assertNull(game.getLastChange());
+        game.move(3);
+        final MoveDelta change = game.getLastChange();
+        assertEquals("1:3 3=0 4=5 5=5 6=5 +1,+0 next 1", change.toString());
+        assertTrue(change.isBonusTurn());
+        assertEquals(0, change.getCaptured());
+        assertEquals(1, change.getStoreGain(1));
+        assertEquals(5 + 2 * 4, change.toBytes().length);
+    }
+
+    @Test
+    void captureIsReported() throws InvalidMoveException {
+        final MancalaGame game = newGame(new KalahRules());
+        game.move(5);
+        game.move(7);
+        game.move(1);
+        final MoveDelta change = game.getLastChange();
+        assertEquals(7, change.getCaptured());
+        assertEquals(7, change.getStoreGain(1));
+        assertEquals(0, change.getStoreGain(2));
+        assertFalse(change.isBonusTurn());
+        assertEquals(2, change.getNextPlayer());
+        assertEquals("1:1 1=0 2=5 3=5 4=5 8=0 +7,+0 captured 7 next 2", change.toString());
+    }
+
+    @Test
+    void searchingDoesNotReplaceTheLastChange() throws InvalidMoveException {
+        final MancalaGame game = newGame(new KalahRules());
+        game.move(1);
+        final MoveDelta change = game.getLastChange();
+        game.getBoard().makeMove(8);
+        game.getBoard().unmakeMove();
+        game.getBoard().copy().tryMove(9);
+        assertTrue(change == game.getLastChange());
+    }
+
+    @Test
+    void searchedCapturesDoNotReplaceTheLastCapture() throws InvalidMoveException {
+        final MancalaGame game = newGame(new KalahRules());
+        final MancalaDataStructure structure = game.getBoard().getDataStructure();
+        for (int pit = 1; pit <= 12; pit++) {
+            structure.removeStones(pit);
+        }
+        structure.addStones(1, 1);  // sown into empty pit 2, taking the 5 opposite
+        structure.addStones(11, 5);
+        structure.addStones(6, 3);
+        structure.addStones(7, 1);  // sown into empty pit 8, taking the 2 opposite
+        structure.addStones(5, 2);
+        game.move(1);
+        assertEquals(3, game.getBoard().makeMove(7)); // asked for only after the search
+        game.getBoard().unmakeMove();
+        final MoveDelta change = game.getLastChange();
+        assertEquals(6, change.getCaptured());
+        assertEquals(6, change.getStoreGain(1));
+    }
+
+    @Test
+    void corruptBytesAreRejected() throws InvalidMoveException {
+        final MancalaGame game = newGame(new AyoRules());
+        game.move(2);
+        final byte[] bytes = game.getLastChange().toBytes();
+        assertThrows(IOException.class, () -> MoveDelta.fromBytes(Arrays.copyOf(bytes, 3)));
+        assertThrows(IOException.class, () -> MoveDelta.fromBytes(Arrays.copyOf(bytes, bytes.length - 1)));
+        assertThrows(IOException.class, () -> MoveDelta.fromBytes(new byte[] {0, 1, 0, 0, 0}));
+    }
+}
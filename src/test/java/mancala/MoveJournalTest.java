@@ -0,0 +1,138 @@
+package mancala;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.AfterEach;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+public class MoveJournalTest {
+
+    private static final String NAME = "game";
+
+    private Path directory;
+    private MancalaGame game;
+    private final Random random = new Random(20);
+
+    @BeforeEach
+    void setUp() throws IOException {
+        directory = Files.createTempDirectory("journal");
+        game = new MancalaGame(new KalahRules());
+        game.setPlayers(new Player("Claire"), new ComputerPlayer("Sarah"));
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(directory);
+    }
+
+    /*plays random legal moves, stopping early if the game ends*/
+    private void play(final int moves) throws InvalidMoveException {
+        for (int i = 0; i < moves && !game.isGameOver(); i++) {
+            int legal = game.getLegalMoves();
+            for (int skip = random.nextInt(Integer.bitCount(legal)); skip > 0; skip--) {
+                legal &= legal - 1;
+            }
+            game.move(Integer.numberOfTrailingZeros(legal));
+        }
+    }
+
+    private static void assertSameGame(final MancalaGame expected, final MancalaGame actual) {
+        assertEquals(BoardSnapshot.of(expected.getBoard()), BoardSnapshot.of(actual.getBoard()));
+        assertEquals(expected.getPlayer(2).getClass(), actual.getPlayer(2).getClass());
+    }
+
+    private Path journalFile() {
+        return directory.resolve(NAME + ".journal");
+    }
+
+    @Test
+    void recoversEveryMove() throws Exception {
+        final MoveJournal journal = MoveJournal.start(game, directory, NAME);
+        play(10);
+        final int moves = journal.getSequence();
+        journal.close();
+        final MancalaGame recovered = MoveJournal.recover(directory, NAME);
+        assertSameGame(game, recovered);
+        assertEquals(moves, recovered.getJournal().getSequence());
+        recovered.getJournal().close();
+    }
+
+    @Test
+    void recoversMovesTriedWithoutThrowing() throws Exception {
+        final MoveJournal journal = MoveJournal.start(game, directory, NAME);
+        for (int i = 0; i < 12 && !game.isGameOver(); i++) {
+            final int pit = Integer.numberOfTrailingZeros(game.getLegalMoves());
+            if (i % 2 == 0) {
+                assertNotEquals(-1, game.tryMove(pit));
+            } else {
+                game.move(pit);
+            }
+        }
+        assertEquals(-1, game.tryMove(0));
+        final int moves = journal.getSequence();
+        journal.close();
+        final MancalaGame recovered = MoveJournal.recover(directory, NAME);
+        assertSameGame(game, recovered);
+        assertEquals(moves, recovered.getJournal().getSequence());
+        recovered.getJournal().close();
+    }
+
+    @Test
+    void snapshotsKeepJournalShort() throws Exception {
+        final MoveJournal journal = MoveJournal.start(game, directory, NAME);
+        journal.setSnapshotInterval(4);
+        play(10);
+        assertEquals(journal.getSequence() % 4 * MoveJournal.RECORD_SIZE, Files.size(journalFile()));
+        journal.close();
+        final MancalaGame recovered = MoveJournal.recover(directory, NAME);
+        assertSameGame(game, recovered);
+        recovered.getJournal().close();
+    }
+
+    @Test
+    void tornTailIsDropped() throws Exception {
+        final MoveJournal journal = MoveJournal.start(game, directory, NAME);
+        play(3);
+        journal.close();
+        final long good = Files.size(journalFile());
+        Files.write(journalFile(), new byte[] {0, 0, 0, 4, 2}, StandardOpenOption.APPEND);
+        final MancalaGame recovered = MoveJournal.recover(directory, NAME);
+        assertSameGame(game, recovered);
+        assertEquals(good, Files.size(journalFile()));
+        recovered.move(Integer.numberOfTrailingZeros(recovered.getLegalMoves()));
+        recovered.getJournal().close();
+        assertEquals(good + MoveJournal.RECORD_SIZE, Files.size(journalFile()));
+        assertSameGame(recovered, MoveJournal.recover(directory, NAME));
+    }
+
+    @Test
+    void replayStopsAtCorruptRecord() throws Exception {
+        final MoveJournal journal = MoveJournal.start(game, directory, NAME);
+        play(2);
+        final BoardSnapshot afterTwo = BoardSnapshot.of(game.getBoard());
+        play(2);
+        journal.close();
+        final byte[] records = Files.readAllBytes(journalFile());
+        records[2 * MoveJournal.RECORD_SIZE + 4] ^= 1; // flip a bit in the third pit number
+        Files.write(journalFile(), records);
+        final MancalaGame recovered = MoveJournal.recover(directory, NAME);
+        assertEquals(2, recovered.getJournal().getSequence());
+        assertEquals(afterTwo, BoardSnapshot.of(recovered.getBoard()));
+        assertNotEquals(BoardSnapshot.of(game.getBoard()), BoardSnapshot.of(recovered.getBoard()));
+        recovered.getJournal().close();
+    }
+}
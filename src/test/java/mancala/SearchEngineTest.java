@@ -0,0 +1,95 @@
+package mancala;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.BeforeEach;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SearchEngineTest {
+
+    private SearchEngine engine;
+    private KalahRules rules;
+    private MancalaDataStructure structure;
+
+    @BeforeEach
+    void setUp() {
+        engine = new SearchEngine(SearchEngine.STORE_DIFFERENCE, 50);
+        rules = new KalahRules();
+        rules.registerPlayers(new Player("Claire"), new Player("Sarah"));
+        structure = rules.getDataStructure();
+    }
+
+    @Test
+    void chooseMoveLeavesGameUnchanged() {
+        final BoardSnapshot before = BoardSnapshot.of(rules);
+        final int pit = engine.chooseMove(rules);
+        assertTrue(rules.isLegalMove(pit));
+        assertEquals(before, BoardSnapshot.of(rules));
+        assertTrue(engine.getNodes() > 0);
+        assertTrue(engine.getCompletedDepth() > 0);
+    }
+
+    @Test
+    void chooseMoveTakesCapture() {
+        for (int i = 1; i <= 12; i++) {
+            structure.removeStones(i);
+        }
+        structure.addStones(1, 1);
+        structure.addStones(4, 1);
+        structure.addStones(11, 9);
+        structure.addStones(8, 1);
+        engine.setMaxDepth(1);
+        assertEquals(1, engine.chooseMove(rules));
+    }
+
+    @Test
+    void chooseMoveFindsOnlyMove() {
+        for (int i = 1; i <= 6; i++) {
+            structure.removeStones(i);
+        }
+        structure.addStones(5, 3);
+        assertEquals(5, engine.chooseMove(rules));
+    }
+
+    @Test
+    void computerPlayerMovesInGame() throws InvalidMoveException {
+        final MancalaGame game = new MancalaGame(2);
+        game.setPlayers(new ComputerPlayer("one", engine), new Player("two"));
+        game.moveComputerPlayer();
+        assertEquals(game.getPlayer(2), game.getCurrentPlayer());
+    }
+
+    @Test
+    void parallelSearchAgreesWithSingleThread() {
+        final SearchEngine parallel = new SearchEngine(SearchEngine.STORE_DIFFERENCE, 60_000);
+        parallel.setThreads(4);
+        parallel.setMaxDepth(7);
+        engine.setTimeBudget(60_000);
+        engine.setMaxDepth(7);
+        final GameRules[] allRules = {rules, new AyoRules()};
+        for (GameRules position : allRules) {
+            engine.chooseMove(position);
+            parallel.chooseMove(position);
+            assertEquals(engine.getScore(), parallel.getScore());
+            assertEquals(7, parallel.getCompletedDepth());
+        }
+    }
+
+    @Test
+    void helperThreadsAgreeWithSingleThread() {
+        final SearchEngine helped = new SearchEngine(SearchEngine.STORE_DIFFERENCE, 60_000);
+        helped.setThreads(16); // more threads than root moves, so most of them are helpers
+        helped.setMaxDepth(7);
+        engine.setTimeBudget(60_000);
+        engine.setMaxDepth(7);
+        final GameRules[] allRules = {rules, new AyoRules()};
+        for (GameRules position : allRules) {
+            engine.chooseMove(position);
+            helped.chooseMove(position);
+            assertEquals(engine.getScore(), helped.getScore());
+            assertEquals(7, helped.getCompletedDepth());
+            assertTrue(helped.getNodes() > engine.getNodes());
+        }
+    }
+}
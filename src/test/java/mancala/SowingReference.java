@@ -0,0 +1,104 @@
+package mancala;
+
+import java.util.Random;
+import java.util.function.Supplier;
+import java.util.function.ToIntBiFunction;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * The original stone-by-stone sowing of each rule set, and a randomized check
+ * that a rule set's closed-form distributeStones leaves the board exactly as
+ * the reference does.
+ */
+final class SowingReference {
+
+    private SowingReference() {
+    }
+
+    /**
+     * Sows random positions with both the rules and the reference and compares
+     * the stones moved, the last position sown and every pit and store.
+     *
+     * @param newRules Makes a fresh rule set on the standard board.
+     * @param reference The stone-by-stone sowing to compare against.
+     * @param <T> The rule set under test.
+     */
+    static <T extends GameRules> void assertMatches(final Supplier<T> newRules,
+            final ToIntBiFunction<T, Integer> reference) {
+        final Random random = new Random(42);
+        for (int trial = 0; trial < 2000; trial++) {
+            final T game = newRules.get();
+            final T expected = newRules.get();
+            final MancalaDataStructure structure = game.getDataStructure();
+            final MancalaDataStructure expectedStructure = expected.getDataStructure();
+            final int maxStones = trial % 2 == 0 ? 6 : 40; // 40 stones go round the board more than twice
+            for (int i = 1; i <= 12; i++) {
+                final int stones = random.nextInt(maxStones);
+                structure.removeStones(i);
+                structure.addStones(i, stones);
+                expectedStructure.removeStones(i);
+                expectedStructure.addStones(i, stones);
+            }
+            final int player = 1 + random.nextInt(2);
+            final int startPit = (player == 1 ? 1 : 7) + random.nextInt(6);
+            game.setCurrentPlayer(player);
+            expected.setCurrentPlayer(player);
+
+            assertEquals(reference.applyAsInt(expected, startPit), game.distributeStones(startPit));
+            assertEquals(expectedStructure.getIteratorPos(), structure.getIteratorPos());
+            for (int i = 1; i <= 12; i++) {
+                assertEquals(expectedStructure.getNumStones(i), structure.getNumStones(i));
+            }
+            assertEquals(expected.getStoreCount(1), game.getStoreCount(1));
+            assertEquals(expected.getStoreCount(2), game.getStoreCount(2));
+        }
+    }
+
+    /**
+     * Sows as Kalah did before the closed form, one stone per call to next().
+     *
+     * @param rules The rules to sow on.
+     * @param startPit The pit to sow from.
+     * @return The number of stones sown.
+     */
+    static int sowStoneByStone(final KalahRules rules, final int startPit) {
+        final MancalaDataStructure board = rules.getDataStructure();
+        board.setIterator(startPit, rules.getCurrentPlayer(), false);
+        final int stones = board.removeStones(startPit);
+        for (int i = 0; i < stones; i++) {
+            board.next().addStone();
+        }
+        return stones;
+    }
+
+    /**
+     * Relays as Ayo did before the closed form, one stone per call to next().
+     *
+     * @param rules The rules to sow on.
+     * @param startPit The pit to sow from.
+     * @return The number of stones sown over the whole relay.
+     */
+    static int relayStoneByStone(final AyoRules rules, final int startPit) {
+        final MancalaDataStructure board = rules.getDataStructure();
+        int totalStones = 0;
+        Countable current = null;
+        board.setIterator(startPit, rules.getCurrentPlayer(), true);
+        int stones = board.removeStones(startPit);
+        do {
+            totalStones += stones;
+            for (int i = 0; i < stones; i++) {
+                current = board.next();
+                current.addStone();
+            }
+            stones = 0;
+            if (current != null && !board.isIteratorOnStore()) {
+                stones = current.getStoneCount();
+                if (stones > 1) {
+                    stones = current.removeStones();
+                }
+            }
+        } while (stones > 1);
+        return totalStones;
+    }
+}
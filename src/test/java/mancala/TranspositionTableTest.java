@@ -0,0 +1,62 @@
+package mancala;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.BeforeEach;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class TranspositionTableTest {
+
+    private TranspositionTable table;
+
+    @BeforeEach
+    void setUp() {
+        table = new TranspositionTable(1);
+    }
+
+    @Test
+    void storeThenProbe() {
+        table.store(12345L, -17, 9, TranspositionTable.LOWER, 11);
+        final long entry = table.probe(12345L);
+        assertEquals(-17, TranspositionTable.getScore(entry));
+        assertEquals(9, TranspositionTable.getDepth(entry));
+        assertEquals(TranspositionTable.LOWER, TranspositionTable.getBound(entry));
+        assertEquals(11, TranspositionTable.getMove(entry));
+        assertEquals(1, table.getHits());
+    }
+
+    @Test
+    void probeMissesUnknownKey() {
+        table.store(1L, 5, 3, TranspositionTable.EXACT, 2);
+        assertEquals(0, table.probe(2L));
+        assertEquals(1, table.getMisses());
+    }
+
+    @Test
+    void deeperEntriesAreKept() {
+        final long stride = table.getCapacity() / 4;
+        for (long i = 0; i < 4; i++) {
+            table.store(i * stride, 1, 10, TranspositionTable.EXACT, 1);
+        }
+        table.store(4 * stride, 2, 5, TranspositionTable.EXACT, 1);
+        assertEquals(0, table.probe(4 * stride));
+        table.store(5 * stride, 3, 12, TranspositionTable.EXACT, 1);
+        assertEquals(3, TranspositionTable.getScore(table.probe(5 * stride)));
+        assertEquals(1, table.getCollisions());
+    }
+
+    @Test
+    void searchWithTableMatchesSearchWithout() {
+        final SearchEngine withTable = new SearchEngine(SearchEngine.STORE_DIFFERENCE, 60_000);
+        final SearchEngine withoutTable = new SearchEngine(SearchEngine.STORE_DIFFERENCE, 60_000);
+        withoutTable.setHashSize(0);
+        withTable.setMaxDepth(8);
+        withoutTable.setMaxDepth(8);
+        final GameRules[] allRules = {new KalahRules(), new AyoRules()};
+        for (GameRules rules : allRules) {
+            withTable.chooseMove(rules);
+            withoutTable.chooseMove(rules);
+            assertEquals(withoutTable.getScore(), withTable.getScore());
+        }
+    }
+}
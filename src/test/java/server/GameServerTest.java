@@ -0,0 +1,115 @@
+package server;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import mancala.BoardSnapshot;
+import mancala.InvalidMoveException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class GameServerTest {
+
+    private static final int SESSIONS = 10_000;
+
+    /*picks a random pit holding stones on the side of the player to move*/
+    private static int randomMove(final SessionState state, final SplittableRandom random) {
+        final BoardSnapshot position = state.getPosition();
+        final int first = position.getCurrentPlayer() == 1 ? 1 : 7;
+        final List<Integer> pits = new ArrayList<>();
+        for (int pit = first; pit < first + 6; pit++) {
+            if (position.getNumStones(pit) > 0) {
+                pits.add(pit);
+            }
+        }
+        return pits.get(random.nextInt(pits.size()));
+    }
+
+    /*keeps moving for whoever is to move until the game ends*/
+    private static CompletableFuture<SessionState> playOut(final GameSession session, final SessionState state,
+                                                           final SplittableRandom random) {
+        if (state.isFinished()) {
+            return CompletableFuture.completedFuture(state);
+        }
+        return session.move(state.getPosition().getCurrentPlayer(), randomMove(state, random))
+            .thenCompose(next -> playOut(session, next, random));
+    }
+
+    private static Throwable failure(final CompletableFuture<?> future) {
+        return assertThrows(ExecutionException.class, future::get).getCause();
+    }
+
+    @Test
+    void sessionEnforcesSeatsAndTurns() throws Exception {
+        try (GameServer server = new GameServer(2)) {
+            final GameSession session = server.createSession(BoardSnapshot.KALAH);
+            assertEquals(1, (int) session.join("Claire").get());
+            assertTrue(failure(session.move(1, 3)) instanceof InvalidMoveException);
+            assertEquals(2, (int) session.join("Sarah").get());
+            assertTrue(failure(session.join("Third")) instanceof InvalidMoveException);
+            assertTrue(failure(session.move(2, 9)) instanceof InvalidMoveException);
+            final SessionState state = server.move(session.getId(), 1, 3).get();
+            assertEquals(1, state.getPosition().getStoreCount(1));
+            assertEquals(1, state.getPosition().getCurrentPlayer()); // last stone in the store
+            final SessionState resigned = session.resign(2).get();
+            assertTrue(resigned.isFinished());
+            assertEquals(1, resigned.getWinner());
+            assertTrue(failure(session.move(1, 1)) instanceof InvalidMoveException);
+            assertTrue(failure(server.move(-1, 1, 1)) instanceof NoSuchSessionException);
+            assertThrows(NoSuchSessionException.class, () -> {
+                server.getSession(-1);
+            });
+        }
+    }
+
+    @Test
+    void tenThousandSessionsPlayAtOnce() throws Exception {
+        try (GameServer server = new GameServer(4)) {
+            final List<CompletableFuture<SessionState>> games = new ArrayList<>();
+            for (int i = 0; i < SESSIONS; i++) {
+                final GameSession session = server.createSession(i % 2 == 0 ? BoardSnapshot.KALAH : BoardSnapshot.AYO);
+                final SplittableRandom random = new SplittableRandom(i);
+                session.join("one");
+                games.add(session.join("two")
+                    .thenCompose(seat -> session.getState())
+                    .thenCompose(state -> playOut(session, state, random)));
+            }
+            assertEquals(SESSIONS, server.getSessionCount());
+            CompletableFuture.allOf(games.toArray(new CompletableFuture<?>[0])).get(2, TimeUnit.MINUTES);
+            for (CompletableFuture<SessionState> game : games) {
+                final SessionState state = game.get();
+                assertTrue(state.isFinished());
+                assertEquals(48, state.getPosition().getStoreCount(1) + state.getPosition().getStoreCount(2));
+                assertTrue(server.removeSession(state.getId()));
+            }
+            assertEquals(0, server.getSessionCount());
+            assertFalse(server.removeSession(1));
+        }
+    }
+
+    @Test
+    void rejectedDrainDoesNotStallTheSession() {
+        final boolean[] reject = {true};
+        final SerialExecutor executor = new SerialExecutor(task -> {
+            if (reject[0]) {
+                throw new RejectedExecutionException("full");
+            }
+            task.run();
+        });
+        final List<String> ran = new ArrayList<>();
+        assertThrows(RejectedExecutionException.class, () -> executor.execute(() -> ran.add("refused")));
+        reject[0] = false;
+        executor.execute(() -> ran.add("accepted"));
+        assertEquals(List.of("accepted"), ran);
+    }
+}
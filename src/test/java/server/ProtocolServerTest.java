@@ -0,0 +1,177 @@
+package server;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ProtocolServerTest {
+
+    private static final int TIMEOUT_MILLIS = 10_000;
+
+    private GameServer games;
+    private ProtocolServer server;
+
+    /*a blocking test client reading and writing whole lines*/
+    private static final class Client implements AutoCloseable {
+        private final Socket socket;
+        private final BufferedReader in;
+        private final OutputStream out;
+
+        private Client(final int port) throws IOException {
+            socket = new Socket("localhost", port);
+            socket.setSoTimeout(TIMEOUT_MILLIS);
+            in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+            out = socket.getOutputStream();
+        }
+
+        private String ask(final String line) throws IOException {
+            send(line);
+            return in.readLine();
+        }
+
+        private void send(final String line) throws IOException {
+            out.write((line + "\n").getBytes(StandardCharsets.US_ASCII));
+            out.flush();
+        }
+
+        private String read() throws IOException {
+            return in.readLine();
+        }
+
+        /*hangs up in the middle of a test, the way a client that goes away would*/
+        private void disconnect() throws IOException {
+            socket.close();
+        }
+
+        @Override
+        public void close() throws IOException {
+            socket.close();
+        }
+    }
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        games = new GameServer(2);
+        server = new ProtocolServer(games, 0);
+        server.start();
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        server.close();
+        games.close();
+    }
+
+    @Test
+    void movesArePushedToBothPlayers() throws IOException {
+        try (Client one = new Client(server.getPort()); Client two = new Client(server.getPort())) {
+            assertTrue(one.ask("JOIN kalah ann").matches("JOINED \\d+ 1"));
+            assertTrue(two.ask("JOIN kalah bob").matches("JOINED \\d+ 2"));
+            final String id = two.read().split(" ")[1];
+            assertEquals("STATE " + id + " 4,4,4,4,4,4,4,4,4,4,4,4 0,0 turn 1", one.read());
+
+            assertEquals("STATE " + id + " 4,4,0,5,5,5,4,4,4,4,4,4 1,0 turn 1", one.ask("MOVE 3"));
+            assertEquals("STATE " + id + " 4,4,0,5,5,5,4,4,4,4,4,4 1,0 turn 1", two.read());
+            assertEquals("ERROR Not your turn", two.ask("MOVE 9"));
+            assertEquals("STATE " + id + " 0,5,1,6,6,5,4,4,4,4,4,4 1,0 turn 2", one.ask("MOVE 1"));
+            assertEquals("STATE " + id + " 0,5,1,6,6,5,4,4,4,4,4,4 1,0 turn 2", two.read());
+            assertEquals("STATE " + id + " 0,5,1,6,6,5,4,4,4,4,4,4 1,0 turn 2", two.ask("state"));
+
+            assertEquals("STATE " + id + " 0,5,1,6,6,5,4,4,4,4,4,4 1,0 over 1", two.ask("RESIGN"));
+            assertEquals("STATE " + id + " 0,5,1,6,6,5,4,4,4,4,4,4 1,0 over 1", one.read());
+            assertEquals("ERROR Game is over", one.ask("MOVE 2"));
+        }
+    }
+
+    @Test
+    void badRequestsAreAnswered() throws IOException {
+        try (Client client = new Client(server.getPort())) {
+            assertEquals("ERROR Unknown command PASS", client.ask("PASS"));
+            assertEquals("ERROR Not in a game", client.ask("MOVE 1"));
+            assertTrue(client.ask("JOIN ayo").matches("JOINED \\d+ 1"));
+            assertEquals("ERROR Already in a game", client.ask("JOIN"));
+            assertEquals("ERROR MOVE needs a pit number", client.ask("MOVE one"));
+            assertEquals("ERROR Waiting for a second player", client.ask("MOVE 1"));
+        }
+    }
+
+    @Test
+    void leavingResignsTheGame() throws IOException {
+        try (Client one = new Client(server.getPort()); Client two = new Client(server.getPort())) {
+            one.ask("JOIN");
+            two.ask("JOIN");
+            two.read();
+            one.read();
+            one.disconnect();
+            assertTrue(two.read().endsWith(" over 2"));
+        }
+    }
+
+    @Test
+    void finishedPlayersCanJoinAgain() throws IOException {
+        try (Client one = new Client(server.getPort()); Client two = new Client(server.getPort())) {
+            one.ask("JOIN");
+            two.ask("JOIN");
+            final String first = two.read().split(" ")[1];
+            one.read();
+            assertTrue(one.ask("RESIGN").endsWith(" over 2"));
+            assertTrue(two.read().endsWith(" over 2"));
+            assertEquals("ERROR Game is over", one.ask("MOVE 1"));
+            assertTrue(two.ask("JOIN").matches("JOINED \\d+ 1"));
+            assertTrue(one.ask("JOIN").matches("JOINED \\d+ 2"));
+            final String second = one.read().split(" ")[1];
+            assertTrue(!first.equals(second));
+            assertEquals("STATE " + second + " 4,4,4,4,4,4,4,4,4,4,4,4 0,0 turn 1", two.read());
+        }
+    }
+
+    @Test
+    void loadGeneratorFinishesEveryGame() throws IOException {
+        final LoadGenerator generator = new LoadGenerator("localhost", server.getPort(), 200, 7);
+        final long[] latencies = generator.run();
+        assertEquals(0, generator.getErrorCount());
+        assertEquals(200, generator.getGamesFinished());
+        assertEquals(generator.getMoveCount(), latencies.length);
+        assertTrue(latencies.length >= 100 * 2);
+        assertTrue(LoadGenerator.percentile(latencies, 50) <= LoadGenerator.percentile(latencies, 99));
+        assertEquals(latencies[latencies.length - 1], LoadGenerator.percentile(latencies, 100));
+        assertEquals(0, games.getSessionCount());
+    }
+
+    @Test
+    void clientThatNeverReadsIsDropped() throws IOException {
+        final byte[] burst = "STATE\n".repeat(10_000).getBytes(StandardCharsets.US_ASCII);
+        int sent = 0;
+        try (Client greedy = new Client(server.getPort())) {
+            try {
+                for (; sent < 1_000_000; sent += 10_000) { // far more replies than the socket buffers hold
+                    greedy.out.write(burst);
+                }
+            } catch (IOException err) {
+                // the server hung up part way through
+            }
+            int replies = 0;
+            try {
+                while (greedy.read() != null) {
+                    replies++;
+                }
+            } catch (IOException err) {
+                // reset rather than closed cleanly
+            }
+            assertTrue(replies < sent, replies + " replies to " + sent + " requests");
+        }
+        try (Client next = new Client(server.getPort())) {
+            assertEquals("ERROR Not in a game", next.ask("STATE"));
+        }
+    }
+}